@@ -0,0 +1,97 @@
+package com.process.benchmark;
+
+import com.process.dto.TaskCompleteRequest;
+import com.process.vo.BatchResultVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完成任务：经理审批直接通过（请假 2 天）、HR 审批（请假 5 天），以及批量完成与逐条完成的对比
+ * <p>
+ * 每次调用前在 Level.Invocation 的准备阶段推进出待完成的任务，准备耗时不计入结果。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CompleteTaskBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    @State(Scope.Thread)
+    public static class ManagerTask {
+
+        public String taskId;
+
+        @Setup(Level.Invocation)
+        public void prepare(EngineState engine) {
+            taskId = engine.prepareManagerTask(2);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class HrTask {
+
+        public String taskId;
+
+        @Setup(Level.Invocation)
+        public void prepare(EngineState engine) {
+            String managerTaskId = engine.prepareManagerTask(5);
+            String processInstanceId = engine.taskService.createTaskQuery()
+                    .taskId(managerTaskId).singleResult().getProcessInstanceId();
+            engine.processService.completeTask(engine.completeRequest(managerTaskId, EngineState.MANAGER, true));
+            taskId = engine.currentTaskId(processInstanceId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ManagerTaskBatch {
+
+        public List<TaskCompleteRequest> requests;
+
+        @Setup(Level.Invocation)
+        public void prepare(EngineState engine) {
+            requests = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                requests.add(engine.completeRequest(engine.prepareManagerTask(2), EngineState.MANAGER, true));
+            }
+        }
+    }
+
+    @Benchmark
+    public void completeManagerBranch(EngineState engine, ManagerTask task) {
+        engine.processService.completeTask(engine.completeRequest(task.taskId, EngineState.MANAGER, true));
+    }
+
+    @Benchmark
+    public void completeHrBranch(EngineState engine, HrTask task) {
+        engine.processService.completeTask(engine.completeRequest(task.taskId, EngineState.HR, true));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void completeOneByOne(EngineState engine, ManagerTaskBatch batch) {
+        for (TaskCompleteRequest request : batch.requests) {
+            engine.processService.completeTask(request);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchResultVO completeInBatch(EngineState engine, ManagerTaskBatch batch) {
+        return engine.processService.completeTasks(batch.requests, BATCH_SIZE);
+    }
+}
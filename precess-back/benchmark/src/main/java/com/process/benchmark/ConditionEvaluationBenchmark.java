@@ -0,0 +1,66 @@
+package com.process.benchmark;
+
+import org.flowable.common.engine.impl.el.ExpressionManager;
+import org.flowable.common.engine.impl.el.VariableContainerWrapper;
+import org.flowable.engine.ProcessEngineConfiguration;
+import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关条件求值：与 ConditionUtil 相同，每次经过连线都用条件文本取表达式再求值，
+ * 对比引擎原有的 UEL 求值（compile=false）与预编译的简单比较（compile=true）。
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ConditionEvaluationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ConditionEngineState extends EngineState {
+
+        @Param({"${approved == false}", "${days > 3}"})
+        public String condition;
+
+        @Param({"false", "true"})
+        public boolean compile;
+
+        public ExpressionManager expressionManager;
+
+        public VariableContainerWrapper variables;
+
+        @Override
+        protected String[] properties() {
+            return new String[]{"process.expression.compile=" + compile};
+        }
+
+        @Override
+        protected void afterBoot() {
+            expressionManager = ((ProcessEngineConfigurationImpl) context.getBean(ProcessEngineConfiguration.class))
+                    .getExpressionManager();
+            Map<String, Object> values = new HashMap<>();
+            values.put("approved", Boolean.TRUE);
+            values.put("days", 5);
+            values.put("managerUserId", MANAGER);
+            values.put("hrUserId", HR);
+            variables = new VariableContainerWrapper(values);
+        }
+    }
+
+    @Benchmark
+    public Object evaluate(ConditionEngineState engine) {
+        return engine.expressionManager.createExpression(engine.condition).getValue(engine.variables);
+    }
+}
@@ -0,0 +1,163 @@
+package com.process.benchmark;
+
+import com.process.ProcessEngineApplication;
+import com.process.dto.ProcessStartRequest;
+import com.process.dto.TaskCompleteRequest;
+import com.process.service.ProcessService;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.TaskService;
+import org.flowable.task.api.Task;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 引擎状态：每轮测试启动一次应用上下文，使用独立的 H2 内存库和自带的请假流程
+ */
+@State(Scope.Benchmark)
+public class EngineState {
+
+    public static final String PROCESS_KEY = "leaveProcess";
+
+    public static final String MANAGER = "bench-manager";
+
+    public static final String HR = "bench-hr";
+
+    public ConfigurableApplicationContext context;
+
+    public ProcessService processService;
+
+    public TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(ProcessEngineApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "logging.level.root=WARN",
+                        "logging.level.com.process=WARN",
+                        "logging.level.org.flowable=WARN")
+                .run(Arrays.stream(properties()).map(property -> "--" + property).toArray(String[]::new));
+        processService = context.getBean(ProcessService.class);
+        taskService = context.getBean(TaskService.class);
+        afterBoot();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        beforeShutdown();
+        context.close();
+    }
+
+    /**
+     * 等待异步作业执行完（服务任务默认在作业线程中异步执行）
+     */
+    public void awaitJobs() {
+        ManagementService managementService = context.getBean(ManagementService.class);
+        long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(2);
+        while ((managementService.createJobQuery().count() > 0 || managementService.createHistoryJobQuery().count() > 0)
+                && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 子类追加的应用配置，以命令行参数传入，优先于 application.yml
+     */
+    protected String[] properties() {
+        return new String[0];
+    }
+
+    /**
+     * 上下文启动后的回调，子类可在此获取 Bean、准备数据
+     */
+    protected void afterBoot() {
+    }
+
+    /**
+     * 关闭上下文前的回调，子类可在此统计数据库状态
+     */
+    protected void beforeShutdown() {
+    }
+
+    /**
+     * 发起一个请假流程，返回流程实例 ID
+     */
+    public String startLeave(String userId, long days) {
+        return startLeave(userId, days, null, null);
+    }
+
+    /**
+     * 发起一个请假流程并附带一个额外变量，返回流程实例 ID
+     */
+    public String startLeave(String userId, long days, String extraName, Object extraValue) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("leaveType", "annual");
+        variables.put("days", days);
+        variables.put("reason", "benchmark");
+        variables.put("managerUserId", MANAGER);
+        variables.put("hrUserId", HR);
+        if (extraName != null) {
+            variables.put(extraName, extraValue);
+        }
+
+        ProcessStartRequest request = new ProcessStartRequest();
+        request.setProcessDefinitionKey(PROCESS_KEY);
+        request.setStartUserId(userId);
+        request.setVariables(variables);
+        return processService.startProcess(request).getId();
+    }
+
+    /**
+     * 获取流程实例当前的唯一任务 ID
+     */
+    public String currentTaskId(String processInstanceId) {
+        Task task = taskService.createTaskQuery().processInstanceId(processInstanceId).singleResult();
+        return task.getId();
+    }
+
+    public TaskCompleteRequest completeRequest(String taskId, String userId, Boolean approved) {
+        TaskCompleteRequest request = new TaskCompleteRequest();
+        request.setTaskId(taskId);
+        request.setUserId(userId);
+        request.setApproved(approved);
+        request.setComment("benchmark");
+        return request;
+    }
+
+    /**
+     * 完成流程实例当前的任务
+     */
+    public void completeCurrent(String processInstanceId, String userId, Boolean approved) {
+        processService.completeTask(completeRequest(currentTaskId(processInstanceId), userId, approved));
+    }
+
+    /**
+     * 发起流程并推进到经理审批，返回经理审批任务 ID
+     */
+    public String prepareManagerTask(long days) {
+        String processInstanceId = startLeave("bench-user", days);
+        completeCurrent(processInstanceId, "bench-user", null);
+        return currentTaskId(processInstanceId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.process.benchmark;
+
+import com.process.vo.ProcessInstanceVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询流程实例：运行中实例与已结束实例（回退到历史查询）
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class GetProcessInstanceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Instances {
+
+        public String runtimeId;
+
+        public String historicId;
+
+        @Setup(Level.Trial)
+        public void prepare(EngineState engine) {
+            runtimeId = engine.startLeave("bench-user", 2);
+
+            historicId = engine.startLeave("bench-user", 2);
+            engine.completeCurrent(historicId, "bench-user", null);
+            engine.completeCurrent(historicId, EngineState.MANAGER, true);
+            engine.awaitJobs();
+        }
+    }
+
+    @Benchmark
+    public ProcessInstanceVO runtimeInstance(EngineState engine, Instances instances) {
+        return engine.processService.getProcessInstance(instances.runtimeId);
+    }
+
+    @Benchmark
+    public ProcessInstanceVO historicInstance(EngineState engine, Instances instances) {
+        return engine.processService.getProcessInstance(instances.historicId);
+    }
+}
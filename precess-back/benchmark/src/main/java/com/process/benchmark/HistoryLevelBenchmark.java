@@ -0,0 +1,78 @@
+package com.process.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 历史级别对写入量的影响：走完一个请假流程（发起、提交、经理审批通过），
+ * 对比请假流程按 full/audit/activity 记录历史、同步与异步写历史的耗时，
+ * 测试结束时打印每个流程实例写入的历史表行数。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class HistoryLevelBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class HistoryEngineState extends EngineState {
+
+        @Param({"full", "audit", "activity"})
+        public String level;
+
+        @Param({"false", "true"})
+        public boolean async;
+
+        private final AtomicLong instances = new AtomicLong();
+
+        @Override
+        protected String[] properties() {
+            return new String[]{
+                    "process.history.levels." + PROCESS_KEY + "=" + level,
+                    "process.history.async=" + async
+            };
+        }
+
+        @Override
+        protected void beforeShutdown() {
+            awaitJobs();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            List<String> tables = jdbcTemplate.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES"
+                    + " WHERE TABLE_NAME LIKE 'ACT_HI_%' ORDER BY TABLE_NAME", String.class);
+            long rows = 0;
+            StringBuilder detail = new StringBuilder();
+            for (String table : tables) {
+                Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+                if (count != null && count > 0) {
+                    rows += count;
+                    detail.append(' ').append(table).append('=').append(count);
+                }
+            }
+            long total = Math.max(instances.get(), 1);
+            System.out.printf("%n[history] level=%s async=%s instances=%d rows/instance=%.1f%s%n",
+                    level, async, instances.get(), (double) rows / total, detail);
+        }
+    }
+
+    @Benchmark
+    public String lifecycle(HistoryEngineState engine) {
+        String processInstanceId = engine.startLeave("bench-user", 2);
+        engine.completeCurrent(processInstanceId, "bench-user", null);
+        engine.completeCurrent(processInstanceId, EngineState.MANAGER, true);
+        engine.instances.incrementAndGet();
+        return processInstanceId;
+    }
+}
@@ -0,0 +1,59 @@
+package com.process.benchmark;
+
+import com.process.dto.TaskInboxQuery;
+import com.process.vo.CursorPageVO;
+import com.process.vo.TaskVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询待办：全量列表与游标分页首页在不同待办数量下的对比
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ListUserTasksBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Inbox {
+
+        @Param({"10", "100", "1000"})
+        public int inboxSize;
+
+        public String userId;
+
+        @Setup(Level.Trial)
+        public void prepare(EngineState engine) {
+            userId = "inbox-" + inboxSize;
+            for (int i = 0; i < inboxSize; i++) {
+                engine.startLeave(userId, 2);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<TaskVO> listUserTasks(EngineState engine, Inbox inbox) {
+        return engine.processService.listUserTasks(inbox.userId);
+    }
+
+    @Benchmark
+    public CursorPageVO<TaskVO> pageUserTasks(EngineState engine, Inbox inbox) {
+        TaskInboxQuery query = new TaskInboxQuery();
+        query.setUserId(inbox.userId);
+        query.setSize(20);
+        return engine.processService.pageUserTasks(query);
+    }
+}
@@ -0,0 +1,58 @@
+package com.process.benchmark;
+
+import com.process.service.ProcessDiagramService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 获取流程图：每次完整渲染与走缓存的对比
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProcessDiagramBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Definition {
+
+        public String processDefinitionId;
+
+        public ProcessDiagramService processDiagramService;
+
+        @Setup(Level.Trial)
+        public void prepare(EngineState engine) {
+            processDefinitionId = engine.processService.listProcessDefinitions().stream()
+                    .filter(definition -> EngineState.PROCESS_KEY.equals(definition.getKey()))
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new)
+                    .getId();
+            processDiagramService = engine.context.getBean(ProcessDiagramService.class);
+        }
+    }
+
+    @Benchmark
+    public byte[] renderDiagram(EngineState engine, Definition definition) throws IOException {
+        try (InputStream inputStream = engine.processService.getProcessDiagram(definition.processDefinitionId)) {
+            return StreamUtils.copyToByteArray(inputStream);
+        }
+    }
+
+    @Benchmark
+    public byte[] cachedDiagram(Definition definition) {
+        return definition.processDiagramService.getDiagram(definition.processDefinitionId).getContent();
+    }
+}
@@ -0,0 +1,161 @@
+package com.process.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.process.common.Result;
+import com.process.vo.ProcessDefinitionVO;
+import com.process.vo.ProcessInstanceVO;
+import com.process.vo.TaskVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 接口响应的序列化与传输成本：Result 包装的流程实例、待办列表、流程定义列表
+ * <ul>
+ *     <li>serialize：按 Spring Boot 默认配置的 ObjectMapper 序列化，对比反射（afterburner=false）与 Afterburner；</li>
+ *     <li>serializeGzip：序列化后按 Tomcat 默认级别 gzip，即开启 server.compression 后每个响应的 CPU 成本。</li>
+ * </ul>
+ * Setup 时打印每种响应压缩前后的字节数，即每个请求的传输量。
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ResponseSerializationBenchmark {
+
+    /**
+     * 与 server.compression.min-response-size 一致，小于该值的响应不压缩
+     */
+    private static final int COMPRESSION_THRESHOLD = 2048;
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+
+        @Param({"instance", "tasks-20", "tasks-1000", "definitions-50"})
+        public String response;
+
+        @Param({"false", "true"})
+        public boolean afterburner;
+
+        public ObjectMapper objectMapper;
+
+        public Result<?> result;
+
+        @Setup(Level.Trial)
+        public void prepare() throws IOException {
+            Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            if (afterburner) {
+                builder.modulesToInstall(new AfterburnerModule());
+            }
+            objectMapper = builder.build();
+            result = build(response);
+
+            byte[] json = objectMapper.writeValueAsBytes(result);
+            int gzipped = gzip(json).length;
+            System.out.printf("%n[response] response=%s json=%d bytes gzip=%d bytes (%.0f%%)%s%n", response,
+                    json.length, gzipped, 100.0 * gzipped / json.length,
+                    json.length < COMPRESSION_THRESHOLD ? " 低于压缩阈值，不压缩" : "");
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize(Payload payload) throws IOException {
+        return payload.objectMapper.writeValueAsBytes(payload.result);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip(Payload payload) throws IOException {
+        return gzip(payload.objectMapper.writeValueAsBytes(payload.result));
+    }
+
+    static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(content);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Result<?> build(String response) {
+        int dash = response.indexOf('-');
+        int count = dash > 0 ? Integer.parseInt(response.substring(dash + 1)) : 1;
+        switch (dash > 0 ? response.substring(0, dash) : response) {
+            case "instance":
+                return Result.success(instance());
+            case "tasks":
+                List<TaskVO> tasks = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    tasks.add(task(i));
+                }
+                return Result.success(tasks);
+            case "definitions":
+                List<ProcessDefinitionVO> definitions = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    definitions.add(definition(i));
+                }
+                return Result.success(definitions);
+            default:
+                throw new IllegalArgumentException(response);
+        }
+    }
+
+    private static ProcessInstanceVO instance() {
+        ProcessInstanceVO vo = new ProcessInstanceVO();
+        vo.setId("2a7f3c1e-5b8d-11ee-8c99-0242ac120002");
+        vo.setProcessDefinitionId("leaveProcess:1:4");
+        vo.setProcessDefinitionKey("leaveProcess");
+        vo.setProcessDefinitionName("请假审批流程");
+        vo.setBusinessKey("LEAVE-20231201-001");
+        vo.setStartUserId("user001");
+        vo.setStartTime(new Date());
+        return vo;
+    }
+
+    private static TaskVO task(int i) {
+        TaskVO vo = new TaskVO();
+        vo.setId("task-" + i);
+        vo.setName("部门经理审批");
+        vo.setDescription("请审批 user" + i + " 的请假申请");
+        vo.setProcessInstanceId("instance-" + i);
+        vo.setProcessDefinitionId("leaveProcess:1:4");
+        vo.setAssignee(EngineState.MANAGER);
+        vo.setCreateTime(new Date(System.currentTimeMillis() - i * 60000L));
+        vo.setPriority(50);
+        vo.setTaskDefinitionKey("managerApproval");
+        return vo;
+    }
+
+    private static ProcessDefinitionVO definition(int i) {
+        ProcessDefinitionVO vo = new ProcessDefinitionVO();
+        vo.setId("process" + i + ":3:" + (1000 + i));
+        vo.setKey("process" + i);
+        vo.setName("审批流程 " + i);
+        vo.setVersion(3);
+        vo.setDeploymentId(String.valueOf(900 + i));
+        vo.setResourceName("process" + i + ".bpmn20.xml");
+        vo.setDescription("流程定义 " + i);
+        vo.setSuspended(false);
+        vo.setShard("default");
+        return vo;
+    }
+}
@@ -0,0 +1,39 @@
+package com.process.benchmark;
+
+import com.process.dto.ProcessStartRequest;
+import com.process.vo.ProcessInstanceVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动流程实例
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class StartProcessBenchmark {
+
+    @Benchmark
+    public ProcessInstanceVO startProcess(EngineState engine) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("days", 2L);
+        variables.put("managerUserId", EngineState.MANAGER);
+        variables.put("hrUserId", EngineState.HR);
+
+        ProcessStartRequest request = new ProcessStartRequest();
+        request.setProcessDefinitionKey(EngineState.PROCESS_KEY);
+        request.setProcessInstanceName("benchmark");
+        request.setStartUserId("bench-user");
+        request.setVariables(variables);
+        return engine.processService.startProcess(request);
+    }
+}
@@ -0,0 +1,267 @@
+package com.process.benchmark;
+
+import com.process.variable.CompactJsonType;
+import org.flowable.engine.RuntimeService;
+import org.flowable.variable.api.types.ValueFields;
+import org.flowable.variable.api.types.VariableType;
+import org.flowable.variable.service.impl.types.SerializableType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结构化变量存储：对比 Flowable 默认的 Java 序列化（serializable 类型）与紧凑格式（compactJson 类型）
+ * <ul>
+ *     <li>encode/decode：单个变量的序列化、反序列化耗时，Setup 时打印两种格式的存储字节数；</li>
+ *     <li>startAndRead：带该变量发起流程并读回，测试结束时打印变量表 TEXT_ 列和 ACT_GE_BYTEARRAY 的实际占用。</li>
+ * </ul>
+ * 变量为一个订单明细 Map，items 为 10/100/1000 条。
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class VariableSerializationBenchmark {
+
+    public static final String VARIABLE = "order";
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+
+        @Param({"10", "100", "1000"})
+        public int items;
+
+        @Param({"serializable", "compactJson"})
+        public String type;
+
+        public Map<String, Object> value;
+
+        public VariableType variableType;
+
+        public Fields encoded;
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            value = order(items);
+            variableType = "compactJson".equals(type)
+                    ? new CompactJsonType(true, 2000, 16 * 1024 * 1024)
+                    : new SerializableType();
+            encoded = new Fields();
+            variableType.setValue(value, encoded);
+            System.out.printf("%n[variable] type=%s items=%d text=%d chars bytes=%d%n", type, items,
+                    encoded.textValue != null ? encoded.textValue.length() : 0,
+                    encoded.bytes != null ? encoded.bytes.length : 0);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class VariableEngineState extends EngineState {
+
+        @Param({"10", "100", "1000"})
+        public int items;
+
+        @Param({"false", "true"})
+        public boolean compact;
+
+        public Map<String, Object> value;
+
+        public RuntimeService runtimeService;
+
+        @Override
+        protected String[] properties() {
+            return new String[]{"process.variables.compact=" + compact};
+        }
+
+        @Override
+        protected void afterBoot() {
+            value = order(items);
+            runtimeService = context.getBean(RuntimeService.class);
+        }
+
+        @Override
+        protected void beforeShutdown() {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            Map<String, Object> stats = jdbcTemplate.queryForMap("SELECT COUNT(*) AS VARS,"
+                    + " COALESCE(AVG(LENGTH(V.TEXT_)), 0) AS TEXT_AVG, COALESCE(AVG(OCTET_LENGTH(B.BYTES_)), 0) AS BYTES_AVG,"
+                    + " COUNT(B.ID_) AS BYTE_ROWS"
+                    + " FROM ACT_RU_VARIABLE V LEFT JOIN ACT_GE_BYTEARRAY B ON B.ID_ = V.BYTEARRAY_ID_"
+                    + " WHERE V.NAME_ = ?", VARIABLE);
+            System.out.printf("%n[variable] compact=%s items=%d variables=%s text/variable=%s bytearray rows=%s bytes/variable=%s%n",
+                    compact, items, stats.get("VARS"), stats.get("TEXT_AVG"), stats.get("BYTE_ROWS"), stats.get("BYTES_AVG"));
+        }
+    }
+
+    @Benchmark
+    public Fields encode(Payload payload) {
+        Fields fields = new Fields();
+        payload.variableType.setValue(payload.value, fields);
+        return fields;
+    }
+
+    @Benchmark
+    public Object decode(Payload payload) {
+        // serializable 类型读取时优先返回缓存对象，清掉后才是真实的反序列化
+        payload.encoded.setCachedValue(null);
+        return payload.variableType.getValue(payload.encoded);
+    }
+
+    @Benchmark
+    public Object startAndRead(VariableEngineState engine) {
+        String processInstanceId = engine.startLeave("bench-user", 2, VARIABLE, engine.value);
+        return engine.runtimeService.getVariable(processInstanceId, VARIABLE);
+    }
+
+    /**
+     * 模拟表单提交的订单明细（请求 JSON 反序列化后的结构）
+     */
+    static Map<String, Object> order(int items) {
+        List<Object> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("sku", String.format("SKU-%06d", i));
+            line.put("name", "办公用品-" + i);
+            line.put("quantity", i % 20 + 1);
+            line.put("price", 9.9 + i);
+            line.put("taxable", i % 3 == 0);
+            line.put("tags", Arrays.asList("office", "q" + (i % 4 + 1)));
+            lines.add(line);
+        }
+        Map<String, Object> order = new HashMap<>();
+        order.put("orderNo", "PO-20260101-0001");
+        order.put("department", "研发中心");
+        order.put("amount", 123456L);
+        order.put("items", lines);
+        return order;
+    }
+
+    /**
+     * 脱离数据库的变量字段，只保存序列化结果
+     */
+    public static class Fields implements ValueFields {
+
+        private String textValue;
+
+        private String textValue2;
+
+        private Long longValue;
+
+        private Double doubleValue;
+
+        private byte[] bytes;
+
+        private Object cachedValue;
+
+        @Override
+        public String getName() {
+            return VARIABLE;
+        }
+
+        @Override
+        public String getProcessInstanceId() {
+            return null;
+        }
+
+        @Override
+        public String getExecutionId() {
+            return null;
+        }
+
+        @Override
+        public String getScopeId() {
+            return null;
+        }
+
+        @Override
+        public String getSubScopeId() {
+            return null;
+        }
+
+        @Override
+        public String getScopeType() {
+            return null;
+        }
+
+        @Override
+        public String getTaskId() {
+            return null;
+        }
+
+        @Override
+        public String getTextValue() {
+            return textValue;
+        }
+
+        @Override
+        public void setTextValue(String textValue) {
+            this.textValue = textValue;
+        }
+
+        @Override
+        public String getTextValue2() {
+            return textValue2;
+        }
+
+        @Override
+        public void setTextValue2(String textValue2) {
+            this.textValue2 = textValue2;
+        }
+
+        @Override
+        public Long getLongValue() {
+            return longValue;
+        }
+
+        @Override
+        public void setLongValue(Long longValue) {
+            this.longValue = longValue;
+        }
+
+        @Override
+        public Double getDoubleValue() {
+            return doubleValue;
+        }
+
+        @Override
+        public void setDoubleValue(Double doubleValue) {
+            this.doubleValue = doubleValue;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void setBytes(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public Object getCachedValue() {
+            return cachedValue;
+        }
+
+        @Override
+        public void setCachedValue(Object cachedValue) {
+            this.cachedValue = cachedValue;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.process.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个接口的请求统计，保存测量期间的全部耗时，结束时排序计算精确分位数
+ */
+public class EndpointStats {
+
+    private final String endpoint;
+
+    private long[] latencies = new long[4096];
+
+    private int count;
+
+    private long errors;
+
+    private String lastError;
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public synchronized void record(long nanos, String error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        if (error != null) {
+            errors++;
+            lastError = error;
+        }
+    }
+
+    /**
+     * 汇总为报告项，耗时单位为毫秒
+     *
+     * @param seconds 测量时长，用于计算吞吐量
+     */
+    public synchronized Map<String, Object> summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", endpoint);
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("throughput", round(count / seconds));
+        summary.put("p50", millis(percentile(sorted, 0.50)));
+        summary.put("p95", millis(percentile(sorted, 0.95)));
+        summary.put("p99", millis(percentile(sorted, 0.99)));
+        summary.put("max", millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+        summary.put("lastError", lastError);
+        return summary;
+    }
+
+    /**
+     * 最近秩法
+     */
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,276 @@
+package com.process.loadtest;
+
+import com.process.common.Result;
+import com.process.dto.ProcessStartRequest;
+import com.process.dto.TaskCompleteRequest;
+import com.process.vo.ProcessDiagramStateVO;
+import com.process.vo.ProcessInstanceVO;
+import com.process.vo.TaskVO;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 虚拟用户：循环发起请假并走完整个审批
+ * <p>
+ * 每轮依次为发起流程、申请人查询待办并提交申请、查看流程图和运行状态、经理查询待办并审批、
+ * 超过 3 天且经理同意时 HR 查询待办并审批。请假天数和审批结果按固定分布随机，两步之间按指数分布思考。
+ * 经理和 HR 由多个虚拟用户共享，其待办列表随并发增长。
+ */
+public class LeaveApprovalUser implements Runnable {
+
+    private static final ParameterizedTypeReference<Result<ProcessInstanceVO>> INSTANCE_RESULT =
+            new ParameterizedTypeReference<Result<ProcessInstanceVO>>() {
+            };
+
+    private static final ParameterizedTypeReference<Result<List<TaskVO>>> TASKS_RESULT =
+            new ParameterizedTypeReference<Result<List<TaskVO>>>() {
+            };
+
+    private static final ParameterizedTypeReference<Result<Void>> VOID_RESULT =
+            new ParameterizedTypeReference<Result<Void>>() {
+            };
+
+    private static final ParameterizedTypeReference<Result<ProcessDiagramStateVO>> STATE_RESULT =
+            new ParameterizedTypeReference<Result<ProcessDiagramStateVO>>() {
+            };
+
+    private static final String[] LEAVE_TYPES = {"annual", "annual", "sick", "personal"};
+
+    private static final double MANAGER_APPROVE_RATE = 0.9;
+
+    private static final double HR_APPROVE_RATE = 0.95;
+
+    /**
+     * 查不到新任务时的重试次数（待办查询可能走只读副本）
+     */
+    private static final int FIND_TASK_ATTEMPTS = 3;
+
+    private final RestTemplate restTemplate;
+
+    private final String baseUrl;
+
+    private final String userId;
+
+    private final String managerId;
+
+    private final String hrId;
+
+    private final long thinkTimeMillis;
+
+    private final Random random;
+
+    private final LoadTestMetrics metrics;
+
+    private final AtomicBoolean running;
+
+    /**
+     * 流程图 ETag，模拟浏览器缓存
+     */
+    private final Map<String, String> diagramEtags = new HashMap<>();
+
+    private int sequence;
+
+    public LeaveApprovalUser(int index, LoadTestConfig config, RestTemplate restTemplate, String baseUrl,
+                             LoadTestMetrics metrics, AtomicBoolean running) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+        this.userId = "lt-user-" + index;
+        this.managerId = "lt-manager-" + (index % config.managers);
+        this.hrId = "lt-hr-" + (index % config.hrs);
+        this.thinkTimeMillis = config.thinkTimeMillis;
+        this.random = new Random(config.seed + index);
+        this.metrics = metrics;
+        this.running = running;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running.get()) {
+                String failedStep = lifecycle();
+                if (failedStep == null) {
+                    metrics.lifecycleCompleted();
+                } else {
+                    metrics.lifecycleAbandoned(failedStep);
+                    think();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 走完一个请假流程，任一步失败时放弃该流程并返回失败的步骤，成功返回 null
+     */
+    private String lifecycle() throws InterruptedException {
+        long days = sampleDays();
+        boolean managerApproves = random.nextDouble() < MANAGER_APPROVE_RATE;
+        boolean hrApproves = random.nextDouble() < HR_APPROVE_RATE;
+
+        Result<ProcessInstanceVO> started = startLeave(days);
+        if (started == null) {
+            return "start";
+        }
+        ProcessInstanceVO instance = started.getData();
+        think();
+        if (!complete(userId, instance.getId(), "submitLeave", null)) {
+            return "submitLeave";
+        }
+        viewDiagram(instance);
+        think();
+        if (!complete(managerId, instance.getId(), "managerApproval", managerApproves)) {
+            return "managerApproval";
+        }
+        if (managerApproves && days > 3) {
+            think();
+            if (!complete(hrId, instance.getId(), "hrApproval", hrApproves)) {
+                return "hrApproval";
+            }
+        }
+        think();
+        return null;
+    }
+
+    /**
+     * 请假天数：1 天 35%，2 天 25%，3 天 15%，4-5 天 20%，6-15 天 5%（约四分之一需要 HR 审批）
+     */
+    private long sampleDays() {
+        double r = random.nextDouble();
+        if (r < 0.35) {
+            return 1;
+        }
+        if (r < 0.60) {
+            return 2;
+        }
+        if (r < 0.75) {
+            return 3;
+        }
+        if (r < 0.95) {
+            return 4 + random.nextInt(2);
+        }
+        return 6 + random.nextInt(10);
+    }
+
+    private Result<ProcessInstanceVO> startLeave(long days) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("leaveType", LEAVE_TYPES[random.nextInt(LEAVE_TYPES.length)]);
+        variables.put("days", days);
+        variables.put("reason", "loadtest");
+        variables.put("managerUserId", managerId);
+        variables.put("hrUserId", hrId);
+
+        ProcessStartRequest request = new ProcessStartRequest();
+        request.setProcessDefinitionKey("leaveProcess");
+        request.setBusinessKey(userId + "-" + (++sequence));
+        request.setStartUserId(userId);
+        request.setVariables(variables);
+        return call("POST /start", () -> restTemplate.exchange(baseUrl + "/start", HttpMethod.POST,
+                new HttpEntity<>(request), INSTANCE_RESULT));
+    }
+
+    /**
+     * 处理人查询待办，找到该流程实例的指定任务并完成
+     */
+    private boolean complete(String assignee, String processInstanceId, String taskDefinitionKey, Boolean approved)
+            throws InterruptedException {
+        TaskVO task = null;
+        for (int attempt = 0; task == null && attempt < FIND_TASK_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(50);
+            }
+            Result<List<TaskVO>> tasks = call("GET /tasks/{userId}", () -> restTemplate.exchange(
+                    baseUrl + "/tasks/{userId}", HttpMethod.GET, null, TASKS_RESULT, assignee));
+            if (tasks == null) {
+                return false;
+            }
+            task = tasks.getData().stream()
+                    .filter(t -> processInstanceId.equals(t.getProcessInstanceId())
+                            && taskDefinitionKey.equals(t.getTaskDefinitionKey()))
+                    .findFirst()
+                    .orElse(null);
+        }
+        if (task == null) {
+            return false;
+        }
+
+        TaskCompleteRequest request = new TaskCompleteRequest();
+        request.setTaskId(task.getId());
+        request.setUserId(assignee);
+        request.setApproved(approved);
+        request.setComment("loadtest");
+        return call("POST /task/complete", () -> restTemplate.exchange(baseUrl + "/task/complete", HttpMethod.POST,
+                new HttpEntity<>(request), VOID_RESULT)) != null;
+    }
+
+    /**
+     * 申请人查看流程图（带 If-None-Match）和当前运行状态
+     */
+    private void viewDiagram(ProcessInstanceVO instance) {
+        String processDefinitionId = instance.getProcessDefinitionId();
+        HttpHeaders headers = new HttpHeaders();
+        String etag = diagramEtags.get(processDefinitionId);
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            ResponseEntity<byte[]> response = restTemplate.exchange(baseUrl + "/diagram/{processDefinitionId}",
+                    HttpMethod.GET, new HttpEntity<>(headers), byte[].class, processDefinitionId);
+            if (response.getHeaders().getETag() != null) {
+                diagramEtags.put(processDefinitionId, response.getHeaders().getETag());
+            }
+        } catch (RestClientException e) {
+            error = e.getMessage();
+        }
+        metrics.record("GET /diagram/{processDefinitionId}", System.nanoTime() - start, error);
+
+        call("GET /instance/{id}/diagram", () -> restTemplate.exchange(baseUrl + "/instance/{id}/diagram",
+                HttpMethod.GET, null, STATE_RESULT, instance.getId()));
+    }
+
+    /**
+     * 发送请求并记录耗时，HTTP 错误或业务码不是 200 时记为失败并返回 null
+     */
+    private <T> Result<T> call(String endpoint, Supplier<ResponseEntity<Result<T>>> request) {
+        long start = System.nanoTime();
+        Result<T> result = null;
+        String error;
+        try {
+            result = request.get().getBody();
+            if (result == null) {
+                error = "响应为空";
+            } else if (!Integer.valueOf(200).equals(result.getCode())) {
+                error = result.getMessage();
+            } else {
+                error = null;
+            }
+        } catch (RestClientException e) {
+            error = e.getMessage();
+        }
+        metrics.record(endpoint, System.nanoTime() - start, error);
+        return error == null ? result : null;
+    }
+
+    private void think() throws InterruptedException {
+        if (thinkTimeMillis <= 0) {
+            return;
+        }
+        // 指数分布，截断在平均值的 10 倍
+        double sample = -thinkTimeMillis * Math.log(1 - random.nextDouble());
+        Thread.sleep((long) Math.min(sample, thinkTimeMillis * 10.0));
+    }
+}
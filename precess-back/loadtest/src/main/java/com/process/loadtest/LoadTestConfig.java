@@ -0,0 +1,81 @@
+package com.process.loadtest;
+
+/**
+ * 压测参数，从系统属性 loadtest.* 读取（见 pom.xml）
+ */
+public class LoadTestConfig {
+
+    /**
+     * 并发虚拟用户数
+     */
+    public final int users;
+
+    /**
+     * 所有用户启动完毕的时长（秒），用户按此均匀错开启动
+     */
+    public final int rampSeconds;
+
+    /**
+     * 全部用户启动后的预热时长（秒），期间的请求不计入结果
+     */
+    public final int warmupSeconds;
+
+    /**
+     * 测量时长（秒）
+     */
+    public final int durationSeconds;
+
+    /**
+     * 两次操作之间的平均思考时间（毫秒），按指数分布随机
+     */
+    public final long thinkTimeMillis;
+
+    /**
+     * 部门经理人数，用户按编号轮流分配
+     */
+    public final int managers;
+
+    /**
+     * HR 人数
+     */
+    public final int hrs;
+
+    /**
+     * 被测应用的数据库连接池大小
+     */
+    public final int poolSize;
+
+    /**
+     * 随机数种子，相同种子下每个用户的请假天数、审批结果序列相同
+     */
+    public final long seed;
+
+    /**
+     * JSON 结果文件路径
+     */
+    public final String resultFile;
+
+    private LoadTestConfig() {
+        users = Integer.getInteger("loadtest.users", 50);
+        rampSeconds = Integer.getInteger("loadtest.ramp", 30);
+        warmupSeconds = Integer.getInteger("loadtest.warmup", 30);
+        durationSeconds = Integer.getInteger("loadtest.duration", 120);
+        thinkTimeMillis = Long.getLong("loadtest.thinkTime", 200L);
+        managers = Integer.getInteger("loadtest.managers", 10);
+        hrs = Integer.getInteger("loadtest.hrs", 2);
+        poolSize = Integer.getInteger("loadtest.poolSize", 10);
+        seed = Long.getLong("loadtest.seed", 42L);
+        resultFile = System.getProperty("loadtest.result", "target/loadtest-result.json");
+    }
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig();
+    }
+
+    @Override
+    public String toString() {
+        return "users=" + users + ", ramp=" + rampSeconds + "s, warmup=" + warmupSeconds + "s, duration="
+                + durationSeconds + "s, thinkTime=" + thinkTimeMillis + "ms, managers=" + managers + ", hrs=" + hrs
+                + ", poolSize=" + poolSize + ", seed=" + seed;
+    }
+}
@@ -0,0 +1,90 @@
+package com.process.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测期间的统计，只记录测量窗口内的请求和完成的流程
+ */
+public class LoadTestMetrics {
+
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * 完成的请假流程（发起到最后一个审批完成）
+     */
+    private final AtomicLong lifecycles = new AtomicLong();
+
+    /**
+     * 放弃的流程，按失败步骤计数
+     */
+    private final ConcurrentMap<String, AtomicLong> abandoned = new ConcurrentHashMap<>();
+
+    private volatile boolean measuring;
+
+    private long measureStart;
+
+    private long measureEnd;
+
+    public void startMeasuring() {
+        measureStart = System.nanoTime();
+        measuring = true;
+    }
+
+    public void stopMeasuring() {
+        measuring = false;
+        measureEnd = System.nanoTime();
+    }
+
+    public double getMeasuredSeconds() {
+        return (measureEnd - measureStart) / 1e9;
+    }
+
+    /**
+     * 记录一次请求，error 为 null 表示成功
+     */
+    public void record(String endpoint, long nanos, String error) {
+        if (measuring) {
+            endpoints.computeIfAbsent(endpoint, EndpointStats::new).record(nanos, error);
+        }
+    }
+
+    public void lifecycleCompleted() {
+        if (measuring) {
+            lifecycles.incrementAndGet();
+        }
+    }
+
+    /**
+     * 请求失败或待办中找不到任务，流程未能推进到结束
+     */
+    public void lifecycleAbandoned(String step) {
+        if (measuring) {
+            abandoned.computeIfAbsent(step, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public long getLifecycles() {
+        return lifecycles.get();
+    }
+
+    public Map<String, Long> getAbandoned() {
+        Map<String, Long> counts = new TreeMap<>();
+        abandoned.forEach((step, count) -> counts.put(step, count.get()));
+        return counts;
+    }
+
+    public List<Map<String, Object>> summarizeEndpoints() {
+        double seconds = getMeasuredSeconds();
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        endpoints.values().stream()
+                .sorted((a, b) -> a.getEndpoint().compareTo(b.getEndpoint()))
+                .forEach(stats -> summaries.add(stats.summarize(seconds)));
+        return summaries;
+    }
+}
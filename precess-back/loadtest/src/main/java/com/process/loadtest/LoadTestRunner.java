@@ -0,0 +1,151 @@
+package com.process.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.process.ProcessEngineApplication;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 压测入口
+ * <p>
+ * 在随机端口启动完整的 Web 应用（独立的 H2 内存库和自带的请假流程），虚拟用户通过 HTTP 调用 REST 接口。
+ * 用户在 ramp 秒内均匀启动，全部启动后再预热 warmup 秒，之后测量 duration 秒。
+ * 结果打印到控制台并以 JSON 写入 loadtest.result。
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        // HttpURLConnection 默认每个地址只保持 5 个空闲连接，并发更高时会频繁新建连接
+        System.setProperty("http.maxConnections", String.valueOf(config.users));
+
+        ConfigurableApplicationContext context = boot(config);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Map<String, Object> report = run(config, context, "http://localhost:" + port + "/api/process");
+            print(report);
+            File resultFile = new File(config.resultFile);
+            if (resultFile.getParentFile() != null) {
+                resultFile.getParentFile().mkdirs();
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile, report);
+            System.out.println("结果已写入 " + resultFile.getAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * 设置以命令行参数传入：properties(...) 只是默认值，会被 application.yml 覆盖
+     */
+    private static ConfigurableApplicationContext boot(LoadTestConfig config) {
+        return new SpringApplicationBuilder(ProcessEngineApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=" + config.poolSize,
+                        "--spring.h2.console.enabled=false",
+                        // 所有虚拟用户来自同一地址，不按客户端限速
+                        "--process.rate-limit.client.permits-per-second=0",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.process=WARN",
+                        "--logging.level.org.flowable=WARN");
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, ConfigurableApplicationContext context,
+                                           String baseUrl) throws InterruptedException {
+        System.out.println("开始压测 - " + config);
+        LoadTestMetrics metrics = new LoadTestMetrics();
+        PoolSampler poolSampler = new PoolSampler(context.getBeansOfType(HikariDataSource.class));
+        RestTemplate restTemplate = new RestTemplate();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService users = Executors.newFixedThreadPool(config.users, r -> {
+            Thread thread = new Thread(r, "loadtest-user-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long rampMillis = TimeUnit.SECONDS.toMillis(config.rampSeconds);
+        for (int i = 0; i < config.users; i++) {
+            long delay = rampMillis * i / config.users;
+            LeaveApprovalUser user = new LeaveApprovalUser(i, config, restTemplate, baseUrl, metrics, running);
+            users.execute(() -> {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                user.run();
+            });
+        }
+
+        Thread.sleep(rampMillis + TimeUnit.SECONDS.toMillis(config.warmupSeconds));
+        metrics.startMeasuring();
+        poolSampler.start();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.durationSeconds));
+        metrics.stopMeasuring();
+        poolSampler.stop();
+
+        running.set(false);
+        users.shutdown();
+        if (!users.awaitTermination(30, TimeUnit.SECONDS)) {
+            users.shutdownNow();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config.toString());
+        report.put("measuredSeconds", EndpointStats.round(metrics.getMeasuredSeconds()));
+        report.put("lifecycles", metrics.getLifecycles());
+        report.put("lifecyclesPerSecond", EndpointStats.round(metrics.getLifecycles() / metrics.getMeasuredSeconds()));
+        report.put("abandoned", metrics.getAbandoned());
+        report.put("endpoints", metrics.summarizeEndpoints());
+        report.put("pools", poolSampler.summarize());
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        System.out.println();
+        System.out.printf("测量 %.2f 秒，完成流程 %d 个（%.2f/s），放弃 %s%n", report.get("measuredSeconds"),
+                report.get("lifecycles"), report.get("lifecyclesPerSecond"), report.get("abandoned"));
+        System.out.println();
+        System.out.printf("%-36s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)");
+        for (Map<String, Object> endpoint : (List<Map<String, Object>>) report.get("endpoints")) {
+            System.out.printf("%-36s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", endpoint.get("endpoint"),
+                    endpoint.get("requests"), endpoint.get("errors"), endpoint.get("throughput"), endpoint.get("p50"),
+                    endpoint.get("p95"), endpoint.get("p99"), endpoint.get("max"));
+        }
+        System.out.println();
+        System.out.printf("%-20s %6s %10s %10s %12s %11s %10s %11s%n",
+                "pool", "max", "avgActive", "maxActive", "saturated%", "avgPending", "maxPending", "waiting%");
+        for (Map<String, Object> pool : (List<Map<String, Object>>) report.get("pools")) {
+            System.out.printf("%-20s %6d %10.2f %10d %12.2f %11.2f %10d %11.2f%n", pool.get("pool"),
+                    pool.get("maximumPoolSize"), pool.get("avgActive"), pool.get("maxActive"),
+                    pool.get("saturatedPercent"), pool.get("avgPending"), pool.get("maxPending"),
+                    pool.get("waitingPercent"));
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,118 @@
+package com.process.loadtest;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定期采样被测应用的 Hikari 连接池，统计活跃连接占比和等待连接的线程数
+ * <p>
+ * 开启读写分离时主库、副本两个连接池分别统计。
+ */
+public class PoolSampler {
+
+    private static final long INTERVAL_MILLIS = 100;
+
+    private final List<Pool> pools = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public PoolSampler(Map<String, HikariDataSource> dataSources) {
+        dataSources.forEach((name, dataSource) -> pools.add(new Pool(name, dataSource)));
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> pools.forEach(Pool::sample), 0, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    public List<Map<String, Object>> summarize() {
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (Pool pool : pools) {
+            summaries.add(pool.summarize());
+        }
+        return summaries;
+    }
+
+    private static class Pool {
+
+        private final String name;
+
+        private final HikariDataSource dataSource;
+
+        private long samples;
+
+        private long activeSum;
+
+        private int maxActive;
+
+        private long saturatedSamples;
+
+        private long pendingSum;
+
+        private int maxPending;
+
+        private long waitingSamples;
+
+        Pool(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        synchronized void sample() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool == null) {
+                return;
+            }
+            int active = pool.getActiveConnections();
+            int pending = pool.getThreadsAwaitingConnection();
+            samples++;
+            activeSum += active;
+            maxActive = Math.max(maxActive, active);
+            if (active >= dataSource.getMaximumPoolSize()) {
+                saturatedSamples++;
+            }
+            pendingSum += pending;
+            maxPending = Math.max(maxPending, pending);
+            if (pending > 0) {
+                waitingSamples++;
+            }
+        }
+
+        synchronized Map<String, Object> summarize() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("pool", name);
+            summary.put("maximumPoolSize", dataSource.getMaximumPoolSize());
+            summary.put("samples", samples);
+            summary.put("avgActive", EndpointStats.round(ratio(activeSum, samples)));
+            summary.put("maxActive", maxActive);
+            // 活跃连接达到上限的采样占比
+            summary.put("saturatedPercent", EndpointStats.round(ratio(saturatedSamples * 100, samples)));
+            summary.put("avgPending", EndpointStats.round(ratio(pendingSum, samples)));
+            summary.put("maxPending", maxPending);
+            // 有线程等待连接的采样占比
+            summary.put("waitingPercent", EndpointStats.round(ratio(waitingSamples * 100, samples)));
+            return summary;
+        }
+
+        private static double ratio(long value, long total) {
+            return total > 0 ? value / (double) total : 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.process.archive;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 已归档的流程实例
+ * <p>
+ * 列表查询需要的字段单独成列，活动、任务、变量、审批意见等明细以 gzip 压缩的 JSON 保存在 payload 中。
+ */
+@Data
+public class ArchivedInstance implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 流程实例 ID
+     */
+    private String id;
+
+    private String processDefinitionId;
+
+    private String processDefinitionKey;
+
+    private String processDefinitionName;
+
+    private String businessKey;
+
+    private String name;
+
+    private String startUserId;
+
+    private Date startTime;
+
+    private Date endTime;
+
+    private Date archiveTime;
+
+    /**
+     * gzip 压缩的 JSON 明细
+     */
+    private byte[] payload;
+}
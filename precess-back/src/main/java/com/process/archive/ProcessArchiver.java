@@ -0,0 +1,341 @@
+package com.process.archive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.process.job.JobTaskExecutor;
+import com.process.mapper.ArchiveMapper;
+import com.process.service.ProcessStartQueueService;
+import com.process.shard.EngineShard;
+import com.process.shard.EngineShardRegistry;
+import org.flowable.engine.HistoryService;
+import org.flowable.engine.history.HistoricActivityInstance;
+import org.flowable.engine.history.HistoricProcessInstance;
+import org.flowable.engine.task.Comment;
+import org.flowable.task.api.history.HistoricTaskInstance;
+import org.flowable.variable.api.history.HistoricVariableInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 流程实例归档
+ * <p>
+ * 定期把结束超过保留天数的流程实例写入 PROC_ARCHIVE_INSTANCE（明细 gzip 压缩），并删除其 ACT_HI_* 历史数据。
+ * 结束的流程实例不再有运行时数据，历史表是唯一随时间无限增长的部分。
+ * <p>
+ * 每批在一个事务中完成归档和删除，批与批之间按占空比休眠（批次耗时越长休眠越久），
+ * 异步作业或异步启动队列有积压时暂停归档，避免与业务请求争用数据库。
+ * 多节点部署时只需在一个节点开启；同时开启时冲突的批次会整体回滚，下一轮重新处理。
+ * 启用分片时逐个分片归档，归档记录写入实例所在分片库的 PROC_ARCHIVE_INSTANCE，与删除历史在同一个分片事务中。
+ */
+@Component
+public class ProcessArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessArchiver.class);
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JobTaskExecutor jobTaskExecutor;
+
+    @Autowired
+    private ProcessStartQueueService processStartQueueService;
+
+    @Value("${process.archive.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 流程实例结束后在历史表中保留的天数
+     */
+    @Value("${process.archive.retention-days:180}")
+    private int retentionDays;
+
+    /**
+     * 两轮归档之间的间隔（毫秒）
+     */
+    @Value("${process.archive.interval:3600000}")
+    private long interval;
+
+    /**
+     * 每批（每个事务）归档的流程实例数
+     */
+    @Value("${process.archive.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 每轮最多处理的批次数，剩余的留到下一轮
+     */
+    @Value("${process.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    /**
+     * 归档占用时间的上限比例，取值 (0, 1]，批次耗时 t 时休眠 t * (1 - dutyCycle) / dutyCycle
+     */
+    @Value("${process.archive.duty-cycle:0.2}")
+    private double dutyCycle;
+
+    /**
+     * 业务繁忙时暂停的时间（毫秒）
+     */
+    @Value("${process.archive.busy-backoff:5000}")
+    private long busyBackoff;
+
+    private final AtomicLong archived = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // 为 0 时休眠时间除零，超过 1 时休眠时间为负
+        if (!(dutyCycle > 0 && dutyCycle <= 1)) {
+            throw new IllegalStateException("process.archive.duty-cycle 必须在 (0, 1] 之间: " + dutyCycle);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "process-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::archive, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("流程实例归档已启动 - 保留天数: {}, 批次大小: {}, 占空比: {}", retentionDays, batchSize, dutyCycle);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 累计归档的流程实例数（本节点启动以来）
+     */
+    public long getArchivedCount() {
+        return archived.get();
+    }
+
+    /**
+     * 读取租户所在分片中的归档明细，不存在时返回 null
+     */
+    public JsonNode readPayload(String processInstanceId, String tenantId) {
+        ArchivedInstance instance = engineShards.forTenant(tenantId).getMapper(ArchiveMapper.class)
+                .selectPayload(processInstanceId);
+        if (instance == null || instance.getPayload() == null) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(instance.getPayload()))) {
+            return objectMapper.readTree(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void archive() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+        for (EngineShard shard : engineShards.getShards()) {
+            if (!running) {
+                return;
+            }
+            archive(shard, cutoff);
+        }
+    }
+
+    private void archive(EngineShard shard, Date cutoff) {
+        long start = System.currentTimeMillis();
+        int total = 0;
+        try {
+            for (int batch = 0; running && batch < maxBatchesPerRun; ) {
+                if (isBusy()) {
+                    Thread.sleep(busyBackoff);
+                    continue;
+                }
+                long batchStart = System.currentTimeMillis();
+                Integer count = shard.execute(() -> archiveBatch(shard, cutoff));
+                total += count;
+                batch++;
+                if (count < batchSize) {
+                    break;
+                }
+                long cost = System.currentTimeMillis() - batchStart;
+                Thread.sleep((long) (cost * (1 - dutyCycle) / dutyCycle));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("流程实例归档出错，下一轮重试 - 分片: {}, 原因: {}", shard.getName(), e.getMessage(), e);
+        }
+        if (total > 0) {
+            log.info("流程实例归档完成 - 分片: {}, 数量: {}, 耗时: {}ms, 截止结束时间: {}",
+                    shard.getName(), total, System.currentTimeMillis() - start, cutoff);
+        }
+    }
+
+    /**
+     * 异步作业或异步启动有积压时视为业务繁忙
+     */
+    private boolean isBusy() {
+        return (jobTaskExecutor.getThreadPoolQueue() != null && !jobTaskExecutor.getThreadPoolQueue().isEmpty())
+                || processStartQueueService.getQueueSize() > 0;
+    }
+
+    private int archiveBatch(EngineShard shard, Date cutoff) {
+        HistoryService historyService = shard.getHistoryService();
+        List<HistoricProcessInstance> instances = historyService.createHistoricProcessInstanceQuery()
+                .finished()
+                .finishedBefore(cutoff)
+                .orderByProcessInstanceEndTime()
+                .asc()
+                .listPage(0, batchSize);
+        if (instances.isEmpty()) {
+            return 0;
+        }
+
+        Date now = new Date();
+        List<ArchivedInstance> rows = new ArrayList<>(instances.size());
+        for (HistoricProcessInstance instance : instances) {
+            rows.add(toArchive(shard, instance, now));
+        }
+        shard.getMapper(ArchiveMapper.class).insertBatch(rows);
+        for (HistoricProcessInstance instance : instances) {
+            historyService.deleteHistoricProcessInstance(instance.getId());
+        }
+        archived.addAndGet(instances.size());
+        return instances.size();
+    }
+
+    private ArchivedInstance toArchive(EngineShard shard, HistoricProcessInstance instance, Date now) {
+        ArchivedInstance row = new ArchivedInstance();
+        row.setId(instance.getId());
+        row.setProcessDefinitionId(instance.getProcessDefinitionId());
+        row.setProcessDefinitionKey(instance.getProcessDefinitionKey());
+        row.setProcessDefinitionName(instance.getProcessDefinitionName());
+        row.setBusinessKey(instance.getBusinessKey());
+        row.setName(instance.getName());
+        row.setStartUserId(instance.getStartUserId());
+        row.setStartTime(instance.getStartTime());
+        row.setEndTime(instance.getEndTime());
+        row.setArchiveTime(now);
+        row.setPayload(compress(buildPayload(shard, instance)));
+        return row;
+    }
+
+    /**
+     * 汇总流程实例的历史明细
+     */
+    private Map<String, Object> buildPayload(EngineShard shard, HistoricProcessInstance instance) {
+        HistoryService historyService = shard.getHistoryService();
+        String id = instance.getId();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", id);
+        payload.put("processDefinitionId", instance.getProcessDefinitionId());
+        payload.put("businessKey", instance.getBusinessKey());
+        payload.put("startUserId", instance.getStartUserId());
+        payload.put("startTime", instance.getStartTime());
+        payload.put("endTime", instance.getEndTime());
+        payload.put("endActivityId", instance.getEndActivityId());
+        payload.put("deleteReason", instance.getDeleteReason());
+
+        List<Map<String, Object>> activities = new ArrayList<>();
+        for (HistoricActivityInstance activity : historyService.createHistoricActivityInstanceQuery()
+                .processInstanceId(id).orderByHistoricActivityInstanceStartTime().asc().list()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("activityId", activity.getActivityId());
+            item.put("activityName", activity.getActivityName());
+            item.put("activityType", activity.getActivityType());
+            item.put("assignee", activity.getAssignee());
+            item.put("startTime", activity.getStartTime());
+            item.put("endTime", activity.getEndTime());
+            activities.add(item);
+        }
+        payload.put("activities", activities);
+
+        List<Map<String, Object>> tasks = new ArrayList<>();
+        for (HistoricTaskInstance task : historyService.createHistoricTaskInstanceQuery()
+                .processInstanceId(id).orderByHistoricTaskInstanceStartTime().asc().list()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", task.getId());
+            item.put("name", task.getName());
+            item.put("taskDefinitionKey", task.getTaskDefinitionKey());
+            item.put("assignee", task.getAssignee());
+            item.put("createTime", task.getCreateTime());
+            item.put("endTime", task.getEndTime());
+            item.put("deleteReason", task.getDeleteReason());
+            tasks.add(item);
+        }
+        payload.put("tasks", tasks);
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (HistoricVariableInstance variable : historyService.createHistoricVariableInstanceQuery()
+                .processInstanceId(id).list()) {
+            variables.put(variable.getVariableName(), toJsonValue(variable.getValue()));
+        }
+        payload.put("variables", variables);
+
+        List<Map<String, Object>> comments = new ArrayList<>();
+        for (Comment comment : shard.getTaskService().getProcessInstanceComments(id)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("taskId", comment.getTaskId());
+            item.put("userId", comment.getUserId());
+            item.put("time", comment.getTime());
+            item.put("message", comment.getFullMessage());
+            comments.add(item);
+        }
+        payload.put("comments", comments);
+        return payload;
+    }
+
+    /**
+     * JSON 能直接表示的值原样保留，其他对象（Java 序列化的变量等）保存为字符串
+     */
+    private static Object toJsonValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Date || value instanceof Map || value instanceof Collection) {
+            return value;
+        }
+        return String.valueOf(value);
+    }
+
+    private byte[] compress(Map<String, Object> payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,31 @@
+package com.process.config;
+
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
+
+/**
+ * 监控端点安全配置
+ * <p>
+ * health、info、prometheus 端点免登录访问，供负载均衡健康检查和 Prometheus 抓取使用；
+ * 其余 actuator 端点仍由 Flowable UI 的安全配置保护。
+ * <p>
+ * Flowable UI 仍通过 WebSecurityConfigurerAdapter 配置，Spring Security 5.7 不允许它与 SecurityFilterChain Bean 共存，
+ * 因此这里的过滤链通过 WebSecurityCustomizer 加入，排在 Flowable UI 的过滤链之前。
+ */
+@Configuration
+public class ActuatorSecurityConfig {
+
+    @Bean
+    public WebSecurityCustomizer actuatorSecurityCustomizer(HttpSecurity http) throws Exception {
+        http.requestMatcher(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class, PrometheusScrapeEndpoint.class))
+                .authorizeRequests(authorize -> authorize.anyRequest().permitAll())
+                .csrf().disable();
+        return web -> web.addSecurityFilterChainBuilder(http);
+    }
+}
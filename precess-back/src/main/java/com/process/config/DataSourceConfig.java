@@ -0,0 +1,75 @@
+package com.process.config;
+
+import com.process.datasource.ReadReplicaRoutingDataSource;
+import com.process.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离数据源配置
+ * <p>
+ * process.datasource.replica.enabled 为 true 时生效：主库连接池仍按 spring.datasource 配置，
+ * 另建副本连接池，对外暴露的 DataSource（引擎、事务管理器、MyBatis 共用）按事务只读标志路由。
+ * 未开启时使用 Spring Boot 自动配置的单一数据源。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "process.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(ReadReplicaRoutingDataSource.REPLICA);
+        dataSource.setDriverClassName(properties.getDriverClassName());
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        properties.getDataSourceProperties().forEach(dataSource::addDataSourceProperty);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "process.datasource.replica", name = "max-lag")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               ReplicaProperties properties) {
+        return new ReplicaLagMonitor(primary, replica, properties.getMaxLag(), properties.getHeartbeatInterval());
+    }
+
+    /**
+     * 指标由 Spring Boot 按 MeterBinder 注册（监控同理），这里不能注入 MeterRegistry：
+     * 连接池指标依赖所有 DataSource，构造时依赖 MeterRegistry 会形成循环依赖
+     */
+    @Bean
+    public ReadReplicaRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                          @Qualifier("replicaDataSource") DataSource replica,
+                                                          ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        return new ReadReplicaRoutingDataSource(primary, replica, replicaLagMonitor.getIfAvailable());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
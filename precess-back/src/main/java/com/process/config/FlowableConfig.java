@@ -1,27 +1,137 @@
 package com.process.config;
 
+import com.process.el.ConditionExpressionConfigurator;
+import com.process.job.AsyncServiceTaskParseHandler;
+import com.process.job.JobTaskExecutor;
+import com.process.listener.ProcessDefinitionChangeListener;
+import com.process.listener.ProcessMetricsListener;
+import com.process.listener.TaskInboxListener;
+import com.process.variable.CompactJsonType;
+import org.flowable.common.engine.api.delegate.event.FlowableEventListener;
+import org.flowable.engine.parse.BpmnParseHandler;
 import org.flowable.spring.SpringProcessEngineConfiguration;
 import org.flowable.spring.boot.EngineConfigurationConfigurer;
+import org.flowable.variable.api.types.VariableType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Flowable 引擎配置
  */
 @Configuration
 public class FlowableConfig implements EngineConfigurationConfigurer<SpringProcessEngineConfiguration> {
 
+    @Autowired
+    private ProcessDefinitionChangeListener processDefinitionChangeListener;
+
+    @Autowired
+    private ProcessMetricsListener processMetricsListener;
+
+    @Autowired
+    private TaskInboxListener taskInboxListener;
+
+    @Autowired
+    private HistoryProperties historyProperties;
+
+    @Autowired
+    private JobExecutorProperties jobExecutorProperties;
+
+    @Autowired
+    private JobTaskExecutor jobTaskExecutor;
+
+    @Autowired
+    private VariableProperties variableProperties;
+
+    @Value("${process.expression.compile:true}")
+    private boolean compileExpressions;
+
+    @Value("${process.expression.cache-size:1024}")
+    private int expressionCacheSize;
+
+    @Value("${process.engine.bulk-insert-enabled:true}")
+    private boolean bulkInsertEnabled;
+
+    @Value("${process.engine.max-statements-in-bulk-insert:100}")
+    private int maxStatementsInBulkInsert;
+
     @Override
     public void configure(SpringProcessEngineConfiguration engineConfiguration) {
+        applyEngineSettings(engineConfiguration);
+        
+        // 注册全局事件监听器
+        List<FlowableEventListener> eventListeners = new ArrayList<>();
+        if (engineConfiguration.getEventListeners() != null) {
+            eventListeners.addAll(engineConfiguration.getEventListeners());
+        }
+        eventListeners.add(processDefinitionChangeListener);
+        eventListeners.add(processMetricsListener);
+        eventListeners.add(taskInboxListener);
+        engineConfiguration.setEventListeners(eventListeners);
+        
+        // 设置邮件服务器（如需发送邮件通知）
+        // engineConfiguration.setMailServerHost("smtp.example.com");
+        // engineConfiguration.setMailServerPort(25);
+    }
+
+    /**
+     * 引擎本身的设置（不含事件监听器），默认引擎和额外分片的引擎共用
+     */
+    public void applyEngineSettings(SpringProcessEngineConfiguration engineConfiguration) {
         // 设置字体，解决流程图中文乱码问题
         engineConfiguration.setActivityFontName("宋体");
         engineConfiguration.setLabelFontName("宋体");
         engineConfiguration.setAnnotationFontName("宋体");
         
-        // 关闭定时任务 JOB，提高性能（如需定时任务，可以开启）
-        engineConfiguration.setAsyncExecutorActivate(false);
+        // 同一事务中同类实体合并为多值 INSERT 写入
+        engineConfiguration.setBulkInsertEnabled(bulkInsertEnabled);
+        engineConfiguration.setMaxNrOfStatementsInBulkInsert(maxStatementsInBulkInsert);
         
-        // 设置邮件服务器（如需发送邮件通知）
-        // engineConfiguration.setMailServerHost("smtp.example.com");
-        // engineConfiguration.setMailServerPort(25);
+        // 异步执行器由 flowable.async-executor-activate 控制，开启时委托在作业线程中执行
+        if (engineConfiguration.isAsyncExecutorActivate()) {
+            engineConfiguration.setAsyncTaskExecutor(jobTaskExecutor);
+            if (jobExecutorProperties.isAsyncDelegates()) {
+                List<BpmnParseHandler> parseHandlers = new ArrayList<>();
+                if (engineConfiguration.getPostBpmnParseHandlers() != null) {
+                    parseHandlers.addAll(engineConfiguration.getPostBpmnParseHandlers());
+                }
+                parseHandlers.add(new AsyncServiceTaskParseHandler());
+                engineConfiguration.setPostBpmnParseHandlers(parseHandlers);
+            }
+        }
+        
+        // 按流程定义配置历史级别
+        if (!historyProperties.getLevels().isEmpty()) {
+            engineConfiguration.setEnableProcessDefinitionHistoryLevel(true);
+            engineConfiguration.setHistoryConfigurationSettings(
+                    new HistoryLevelSettings(engineConfiguration, historyProperties.getLevels()));
+        }
+        
+        // 异步历史：事务内只写历史作业，由异步历史执行器批量写入历史表
+        if (historyProperties.isAsync()) {
+            engineConfiguration.setAsyncHistoryEnabled(true);
+            engineConfiguration.setAsyncHistoryExecutorActivate(true);
+            engineConfiguration.setAsyncHistoryJsonGroupingEnabled(true);
+            engineConfiguration.setAsyncHistoryJsonGroupingThreshold(historyProperties.getGroupingThreshold());
+            engineConfiguration.setAsyncHistoryJsonGzipCompressionEnabled(historyProperties.isGzip());
+        }
+        
+        // 结构化变量以紧凑格式保存；始终注册该类型，关闭后已保存的变量仍可读取
+        List<VariableType> preVariableTypes = new ArrayList<>();
+        if (engineConfiguration.getCustomPreVariableTypes() != null) {
+            preVariableTypes.addAll(engineConfiguration.getCustomPreVariableTypes());
+        }
+        preVariableTypes.add(new CompactJsonType(variableProperties.isCompact(),
+                variableProperties.getInlineLimit(), variableProperties.getMaxSize()));
+        engineConfiguration.setCustomPreVariableTypes(preVariableTypes);
+        
+        // 连线条件中的简单比较预编译，跳过 UEL 求值
+        if (compileExpressions) {
+            engineConfiguration.addConfigurator(new ConditionExpressionConfigurator(expressionCacheSize));
+        }
     }
+
 }
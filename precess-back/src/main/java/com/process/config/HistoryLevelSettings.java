@@ -0,0 +1,43 @@
+package com.process.config;
+
+import org.flowable.common.engine.impl.history.HistoryLevel;
+import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.flowable.engine.impl.history.DefaultHistoryConfigurationSettings;
+import org.flowable.engine.impl.util.ProcessDefinitionUtil;
+import org.flowable.engine.repository.ProcessDefinition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按流程定义决定历史级别
+ * <p>
+ * 优先使用 process.history.levels 中按 Key 配置的级别，其次是 BPMN 中的 flowable:historyLevel 扩展元素，
+ * 最后是全局的 flowable.history-level。结果按流程定义 ID 缓存，流程定义部署后不会变化。
+ */
+public class HistoryLevelSettings extends DefaultHistoryConfigurationSettings {
+
+    private final Map<String, HistoryLevel> levelsByKey = new HashMap<>();
+
+    private final Map<String, HistoryLevel> levelsByDefinitionId = new ConcurrentHashMap<>();
+
+    public HistoryLevelSettings(ProcessEngineConfigurationImpl processEngineConfiguration, Map<String, String> levels) {
+        super(processEngineConfiguration);
+        levels.forEach((key, level) -> levelsByKey.put(key, HistoryLevel.getHistoryLevelForKey(level)));
+    }
+
+    @Override
+    protected HistoryLevel getProcessDefinitionHistoryLevel(String processDefinitionId) {
+        return levelsByDefinitionId.computeIfAbsent(processDefinitionId, this::resolveHistoryLevel);
+    }
+
+    private HistoryLevel resolveHistoryLevel(String processDefinitionId) {
+        ProcessDefinition processDefinition = ProcessDefinitionUtil.getProcessDefinition(processDefinitionId);
+        HistoryLevel level = processDefinition != null ? levelsByKey.get(processDefinition.getKey()) : null;
+        if (level == null) {
+            level = super.getProcessDefinitionHistoryLevel(processDefinitionId);
+        }
+        return level != null ? level : processEngineConfiguration.getHistoryLevel();
+    }
+}
@@ -0,0 +1,37 @@
+package com.process.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 历史记录配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "process.history")
+public class HistoryProperties {
+
+    /**
+     * 按流程定义 Key 指定的历史级别（none、activity、audit、full），未配置的流程使用 flowable.history-level
+     */
+    private Map<String, String> levels = new LinkedHashMap<>();
+
+    /**
+     * 是否异步写历史：事务内只写一条历史作业，由异步历史执行器在请求之外批量落库
+     */
+    private boolean async = false;
+
+    /**
+     * 同一事务产生的历史数据超过该条数时合并为一个作业
+     */
+    private int groupingThreshold = 10;
+
+    /**
+     * 历史作业数据是否 gzip 压缩
+     */
+    private boolean gzip = false;
+}
@@ -0,0 +1,53 @@
+package com.process.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 幂等键配置
+ * <p>
+ * 带 Idempotency-Key 请求头的启动流程、完成任务请求，成功结果在 ttl 内按键缓存，重复请求直接返回缓存的结果。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "process.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * 是否处理 Idempotency-Key；关闭后忽略该请求头
+     */
+    private boolean enabled = true;
+
+    /**
+     * 成功结果的保留时间，应覆盖上游的最长重试窗口
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * 内存中最多保留的键数，超出时淘汰最早的键
+     */
+    private int maxEntries = 100000;
+
+    /**
+     * 相同键的请求正在处理时，重复请求等待其结果的最长时间
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 是否同时记录到 PROC_IDEMPOTENCY 表，多节点部署时共享去重结果
+     */
+    private boolean databaseEnabled = false;
+
+    /**
+     * 表中处理中的键的有效期，节点在处理期间宕机时，超过后允许重新执行
+     */
+    private Duration processingTimeout = Duration.ofMinutes(1);
+
+    /**
+     * 清理表中过期记录的间隔
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,23 @@
+package com.process.config;
+
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson 配置
+ * <p>
+ * 注册 Afterburner 模块：为 Result、各 VO 等 Bean 生成字节码访问器，替代反射调用 getter/setter，
+ * 作用于 Spring Boot 自动配置的 ObjectMapper（接口响应、发件箱消息、幂等结果等）。
+ * Blackbird 需要 Java 11，本项目为 Java 8，因此使用 Afterburner。
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "process.web.afterburner", havingValue = "true", matchIfMissing = true)
+    public AfterburnerModule afterburnerModule() {
+        return new AfterburnerModule();
+    }
+}
@@ -0,0 +1,31 @@
+package com.process.config;
+
+import com.process.job.JobTaskExecutor;
+import com.process.job.JobThreadFactories;
+import com.process.metrics.ProcessMetrics;
+import org.flowable.common.engine.impl.async.AsyncTaskExecutorConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 异步作业线程池配置
+ * <p>
+ * 线程池由 Spring 管理生命周期，在流程引擎关闭之后才关闭。
+ */
+@Configuration
+public class JobExecutorConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public JobTaskExecutor jobTaskExecutor(JobExecutorProperties properties, ProcessMetrics processMetrics) {
+        AsyncTaskExecutorConfiguration configuration = new AsyncTaskExecutorConfiguration();
+        configuration.setCorePoolSize(properties.getCorePoolSize());
+        configuration.setMaxPoolSize(properties.getMaxPoolSize());
+        configuration.setQueueSize(properties.getQueueSize());
+        configuration.setKeepAlive(properties.getKeepAlive());
+        configuration.setThreadNamePrefix(properties.getThreadNamePrefix());
+
+        JobTaskExecutor taskExecutor = new JobTaskExecutor(configuration, processMetrics);
+        taskExecutor.setThreadFactory(JobThreadFactories.create(properties.getThreadFactory(), properties.getThreadNamePrefix()));
+        return taskExecutor;
+    }
+}
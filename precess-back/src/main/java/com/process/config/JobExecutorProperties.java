@@ -0,0 +1,55 @@
+package com.process.config;
+
+import com.process.job.JobThreadFactories;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 异步作业执行器配置
+ * <p>
+ * 作业获取相关参数（每次获取的作业数、锁定时间、获取间隔）使用 Flowable 自带的
+ * flowable.process.async.executor.* 配置，这里只配置执行作业的线程池。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "process.job-executor")
+public class JobExecutorProperties {
+
+    /**
+     * 是否将服务任务（委托）标记为异步，在作业线程中执行而不占用完成任务的请求事务
+     */
+    private boolean asyncDelegates = true;
+
+    /**
+     * 核心线程数
+     */
+    private int corePoolSize = 8;
+
+    /**
+     * 最大线程数
+     */
+    private int maxPoolSize = 8;
+
+    /**
+     * 线程池队列容量，队列满时作业退回数据库，由下一轮获取重新执行
+     */
+    private int queueSize = 256;
+
+    /**
+     * 空闲线程存活时间
+     */
+    private Duration keepAlive = Duration.ofSeconds(5);
+
+    /**
+     * 线程类型：platform 或 virtual（JDK 21+，低版本自动回退为 platform）
+     */
+    private String threadFactory = JobThreadFactories.PLATFORM;
+
+    /**
+     * 线程名前缀
+     */
+    private String threadNamePrefix = "flowable-job-";
+}
@@ -0,0 +1,83 @@
+package com.process.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 限流与隔离舱配置（启动时的初始值，运行中可通过 /actuator/ratelimits 调整）
+ * <p>
+ * 隔离舱限制一类接口的并发数，令牌桶限制单个客户端和单个流程定义的请求速率，超出时立即返回 429。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "process.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 各隔离舱的最大并发数，未配置的隔离舱不限制
+     */
+    private Map<String, Integer> bulkheads = new LinkedHashMap<>();
+
+    /**
+     * 标识客户端的请求头，只采信来自 trusted-proxies 的请求；已登录的请求按用户区分，其余按来源 IP 区分
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * 可信网关的来源 IP，只有这些地址转发的请求才采信 clientHeader；为空时不采信该请求头
+     */
+    private Set<String> trustedProxies = new LinkedHashSet<>();
+
+    /**
+     * 每个客户端的请求速率
+     */
+    private Limit client = new Limit();
+
+    /**
+     * 每个流程定义 Key 的默认请求速率
+     */
+    private Limit definition = new Limit();
+
+    /**
+     * 按流程定义 Key 单独配置的请求速率
+     */
+    private Map<String, Limit> definitions = new LinkedHashMap<>();
+
+    /**
+     * 最多跟踪的客户端数、流程定义 Key 数，超出时淘汰最久未访问的令牌桶
+     */
+    private int maxTrackedKeys = 10000;
+
+    @Data
+    public static class Limit {
+
+        /**
+         * 每秒补充的令牌数，0 表示不限制
+         */
+        private double permitsPerSecond = 0;
+
+        /**
+         * 令牌桶容量，即允许的突发请求数；0 表示与每秒令牌数相同
+         */
+        private int burst = 0;
+
+        public boolean isUnlimited() {
+            return permitsPerSecond <= 0;
+        }
+
+        public double capacity() {
+            return burst > 0 ? burst : Math.max(1, permitsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.process.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 只读副本数据源配置
+ * <p>
+ * 开启后默认分片上的只读事务（{@code EngineShard.query}）使用副本连接池，其余操作使用 spring.datasource 主库。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "process.datasource.replica")
+public class ReplicaProperties {
+
+    /**
+     * 是否开启读写分离
+     */
+    private boolean enabled = false;
+
+    private String driverClassName;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /**
+     * 副本连接池最大连接数
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * 传给 JDBC 驱动的连接属性（预编译语句缓存等），与 spring.datasource.hikari.data-source-properties 相同
+     */
+    private Map<String, String> dataSourceProperties = new LinkedHashMap<>();
+
+    /**
+     * 副本允许的最大延迟，超过后只读事务回到主库；不配置时不检查延迟
+     */
+    private Duration maxLag;
+
+    /**
+     * 主库写心跳、比对副本延迟的间隔，也是延迟检测的精度
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,65 @@
+package com.process.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 多租户分片配置
+ * <p>
+ * spring.datasource 上的引擎为默认分片（default），每个额外分片有独立的数据源和流程引擎。
+ * 租户按 tenants 映射到分片，未映射的租户和不带租户的请求使用默认分片。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "process.sharding")
+public class ShardingProperties {
+
+    /**
+     * 是否启用额外分片
+     */
+    private boolean enabled = false;
+
+    /**
+     * 额外分片，键为分片名
+     */
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    /**
+     * 租户 ID 到分片名的映射
+     */
+    private Map<String, String> tenants = new LinkedHashMap<>();
+
+    /**
+     * 跨分片查询的并行线程数
+     */
+    private int fanOutThreads = 8;
+
+    /**
+     * 跨分片查询等待单个分片的最长时间
+     */
+    private Duration fanOutTimeout = Duration.ofSeconds(5);
+
+    @Data
+    public static class Shard {
+
+        private String driverClassName;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        /**
+         * 传给 JDBC 驱动的连接属性
+         */
+        private Map<String, String> dataSourceProperties = new LinkedHashMap<>();
+    }
+}
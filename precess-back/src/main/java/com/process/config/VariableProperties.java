@@ -0,0 +1,29 @@
+package com.process.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 流程变量存储配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "process.variables")
+public class VariableProperties {
+
+    /**
+     * 是否以紧凑格式保存结构化变量（Map/List）；关闭后新写入的变量恢复 Java 序列化，已保存的紧凑变量仍可读取
+     */
+    private boolean compact = true;
+
+    /**
+     * JSON 文本不超过该字符数时直接存入变量表 TEXT_ 列（列宽 4000）
+     */
+    private int inlineLimit = 2000;
+
+    /**
+     * 单个变量序列化后的最大字节数，超过时拒绝写入
+     */
+    private int maxSize = 1024 * 1024;
+}
@@ -1,21 +1,39 @@
 package com.process.config;
 
+import com.process.ratelimit.RateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * Web MVC 配置 - 跨域配置
+ * Web MVC 配置 - 跨域（缓存预检结果）、限流
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    /**
+     * 预检结果的缓存时间（秒），浏览器在此期间对同一接口不再发送 OPTIONS（各浏览器另有上限，Chrome 为 2 小时）
+     */
+    @Value("${process.web.cors-max-age:86400}")
+    private long corsMaxAge;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .maxAge(3600);
+                .maxAge(corsMaxAge);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/process/**");
     }
 }
@@ -1,22 +1,57 @@
 package com.process.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.process.archive.ProcessArchiver;
 import com.process.common.Result;
+import com.process.dto.ProcessBatchStartRequest;
 import com.process.dto.ProcessStartRequest;
+import com.process.dto.TaskBatchCompleteRequest;
 import com.process.dto.TaskCompleteRequest;
+import com.process.dto.TaskInboxQuery;
+import com.process.inbox.TaskInboxBroker;
+import com.process.ratelimit.RateLimited;
+import com.process.ratelimit.RequestLimiter;
+import com.process.service.DeploymentPipelineService;
+import com.process.service.HistoryExportService;
+import com.process.service.IdempotencyService;
+import com.process.service.ProcessDefinitionCacheService;
+import com.process.service.ProcessDiagramService;
 import com.process.service.ProcessService;
+import com.process.service.ProcessStartQueueService;
+import com.process.service.TaskInboxCacheService;
+import com.process.vo.BatchResultVO;
+import com.process.vo.CursorPageVO;
+import com.process.vo.DeploymentStageVO;
 import com.process.vo.ProcessDefinitionVO;
+import com.process.vo.ProcessDiagramStateVO;
 import com.process.vo.ProcessInstanceVO;
+import com.process.vo.ProcessStartStatusVO;
 import com.process.vo.TaskVO;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.InputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 流程管理控制器
@@ -25,13 +60,55 @@ import java.util.List;
 @RequestMapping("/api/process")
 public class ProcessController {
 
+    private static final Logger log = LoggerFactory.getLogger(ProcessController.class);
+
     @Autowired
     private ProcessService processService;
 
+    @Autowired
+    private ProcessStartQueueService processStartQueueService;
+
+    @Autowired
+    private HistoryExportService historyExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProcessDiagramService processDiagramService;
+
+    @Autowired
+    private ProcessDefinitionCacheService processDefinitionCacheService;
+
+    @Autowired
+    private TaskInboxBroker taskInboxBroker;
+
+    @Autowired
+    private TaskInboxCacheService taskInboxCacheService;
+
+    @Autowired
+    private ProcessArchiver processArchiver;
+
+    @Autowired
+    private DeploymentPipelineService deploymentPipelineService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private RequestLimiter requestLimiter;
+
+    /**
+     * 流程图响应的 Cache-Control，流程定义不可变，默认允许长期缓存
+     */
+    @Value("${process.diagram.cache-control:public, max-age=86400, immutable}")
+    private String diagramCacheControl;
+
     /**
      * 部署流程定义
      */
     @PostMapping("/deploy")
+    @RateLimited("deploy")
     public Result<String> deployProcess(@RequestParam("file") MultipartFile file) {
         try {
             String deploymentId = processService.deployProcess(
@@ -44,6 +121,49 @@ public class ProcessController {
         }
     }
 
+    /**
+     * 暂存流程定义，后台校验后部署
+     */
+    @PostMapping("/deployments")
+    @RateLimited("deploy")
+    public Result<DeploymentStageVO> stageDeployment(@RequestParam("file") MultipartFile file,
+                                                     @RequestParam(defaultValue = "true") boolean autoDeploy) {
+        try {
+            return Result.success(deploymentPipelineService.stage(file.getOriginalFilename(), file.getBytes(), autoDeploy));
+        } catch (Exception e) {
+            return Result.error("暂存流程失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询暂存部署状态
+     */
+    @GetMapping("/deployments/{stagingId}")
+    public Result<DeploymentStageVO> getDeploymentStage(@PathVariable String stagingId) {
+        DeploymentStageVO stage = deploymentPipelineService.getStatus(stagingId);
+        if (stage == null) {
+            return Result.error("未找到该暂存记录");
+        }
+        return Result.success(stage);
+    }
+
+    /**
+     * 部署已校验通过的暂存流程定义
+     */
+    @PostMapping("/deployments/{stagingId}/deploy")
+    @RateLimited("deploy")
+    public Result<DeploymentStageVO> deployStaged(@PathVariable String stagingId) {
+        try {
+            DeploymentStageVO stage = deploymentPipelineService.deploy(stagingId);
+            if (stage == null) {
+                return Result.error("未找到该暂存记录");
+            }
+            return Result.success(stage);
+        } catch (Exception e) {
+            return Result.error("部署流程失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取所有流程定义列表
      */
@@ -58,16 +178,78 @@ public class ProcessController {
     }
 
     /**
-     * 启动流程实例
+     * 获取流程定义缓存版本号，版本变化说明流程定义列表已更新
+     */
+    @GetMapping("/definitions/version")
+    public Result<Long> getDefinitionsVersion() {
+        return Result.success(processDefinitionCacheService.getVersion());
+    }
+
+    /**
+     * 启动流程实例，带 Idempotency-Key 的重复请求返回首次启动的结果
      */
     @PostMapping("/start")
-    public Result<ProcessInstanceVO> startProcess(@Validated @RequestBody ProcessStartRequest request) {
+    @RateLimited("start")
+    public Result<ProcessInstanceVO> startProcess(@Validated @RequestBody ProcessStartRequest request,
+                                                  @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                                          String idempotencyKey) {
+        return idempotencyService.execute("start", idempotencyKey, request, ProcessInstanceVO.class, () -> {
+            if (requestLimiter.tryAcquireDefinition(request.getProcessDefinitionKey(), 1) > 0) {
+                return Result.error(HttpStatus.TOO_MANY_REQUESTS.value(),
+                        "流程 " + request.getProcessDefinitionKey() + " 启动过于频繁，请稍后重试");
+            }
+            try {
+                ProcessInstanceVO processInstance = processService.startProcess(request);
+                return Result.success(processInstance);
+            } catch (Exception e) {
+                return Result.error("启动流程失败: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 异步批量启动流程实例，队列已满时返回 429；批次中业务Key重复时返回 400，业务Key仍在排队或启动中时返回 409
+     */
+    @PostMapping("/start/batch")
+    @RateLimited("start")
+    public Result<Integer> startProcesses(@Validated @RequestBody ProcessBatchStartRequest request) {
         try {
-            ProcessInstanceVO processInstance = processService.startProcess(request);
-            return Result.success(processInstance);
+            for (ProcessStartRequest item : request.getRequests()) {
+                if (StringUtils.isBlank(item.getBusinessKey())) {
+                    return Result.error("异步启动时业务Key不能为空");
+                }
+            }
+            Map<String, Long> counts = request.getRequests().stream().collect(
+                    Collectors.groupingBy(ProcessStartRequest::getProcessDefinitionKey, Collectors.counting()));
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                if (requestLimiter.tryAcquireDefinition(entry.getKey(), entry.getValue().intValue()) > 0) {
+                    return Result.error(HttpStatus.TOO_MANY_REQUESTS.value(),
+                            "流程 " + entry.getKey() + " 启动过于频繁，请稍后重试");
+                }
+            }
+            if (!processStartQueueService.submit(request.getRequests())) {
+                return Result.error(HttpStatus.TOO_MANY_REQUESTS.value(), "启动队列已满，请稍后重试");
+            }
+            return Result.success(request.getRequests().size());
+        } catch (IllegalArgumentException e) {
+            return Result.error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (IllegalStateException e) {
+            return Result.error(HttpStatus.CONFLICT.value(), e.getMessage());
         } catch (Exception e) {
-            return Result.error("启动流程失败: " + e.getMessage());
+            return Result.error("批量启动流程失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按业务 Key 查询异步启动结果
+     */
+    @GetMapping("/start/status/{businessKey}")
+    public Result<ProcessStartStatusVO> getStartStatus(@PathVariable String businessKey) {
+        ProcessStartStatusVO status = processStartQueueService.getStatus(businessKey);
+        if (status == null) {
+            return Result.error("未找到该业务Key的启动记录");
         }
+        return Result.success(status);
     }
 
     /**
@@ -84,25 +266,85 @@ public class ProcessController {
     }
 
     /**
-     * 完成任务
+     * 获取待办缓存统计
+     */
+    @GetMapping("/tasks/cache/stats")
+    public Result<Map<String, Object>> getTaskCacheStats() {
+        return Result.success(taskInboxCacheService.getStats());
+    }
+
+    /**
+     * 订阅用户待办变更（SSE），替代轮询待办列表
+     * <p>
+     * 事件名为 created、assigned、completed，数据为 TaskVO；断线重连时浏览器自动携带 Last-Event-ID 续传，
+     * 也可通过 lastEventId 参数指定。收到 reset 事件时需重新拉取完整待办列表。
+     */
+    @GetMapping(value = "/tasks/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserTasks(@PathVariable String userId,
+                                      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                      @RequestParam(required = false) String lastEventId) {
+        String resumeFrom = StringUtils.defaultIfBlank(lastEventIdHeader, lastEventId);
+        Long after = null;
+        if (StringUtils.isNotBlank(resumeFrom)) {
+            // 无法识别的事件 ID 按最旧处理，由推送端返回 reset
+            after = StringUtils.isNumeric(resumeFrom) ? Long.valueOf(resumeFrom) : -1L;
+        }
+        return taskInboxBroker.subscribe(userId, after);
+    }
+
+    /**
+     * 分页获取用户待办任务（游标分页），启用分片时需传入租户
+     */
+    @GetMapping("/inbox/{userId}")
+    public Result<CursorPageVO<TaskVO>> pageUserTasks(@PathVariable String userId, TaskInboxQuery query) {
+        try {
+            query.setUserId(userId);
+            return Result.success(processService.pageUserTasks(query));
+        } catch (Exception e) {
+            return Result.error("获取待办任务失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 完成任务，带 Idempotency-Key 的重复请求直接返回首次完成的结果
      */
     @PostMapping("/task/complete")
-    public Result<Void> completeTask(@Validated @RequestBody TaskCompleteRequest request) {
+    @RateLimited("complete")
+    public Result<Void> completeTask(@Validated @RequestBody TaskCompleteRequest request,
+                                     @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                             String idempotencyKey) {
+        return idempotencyService.execute("complete", idempotencyKey, request, Void.class, () -> {
+            try {
+                processService.completeTask(request);
+                return Result.success();
+            } catch (Exception e) {
+                return Result.error("完成任务失败: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 批量完成任务
+     */
+    @PostMapping("/task/batch-complete")
+    @RateLimited("complete")
+    public Result<BatchResultVO> completeTasks(@Validated @RequestBody TaskBatchCompleteRequest request) {
         try {
-            processService.completeTask(request);
-            return Result.success();
+            BatchResultVO result = processService.completeTasks(request.getTasks(), request.getChunkSize());
+            return Result.success(result);
         } catch (Exception e) {
-            return Result.error("完成任务失败: " + e.getMessage());
+            return Result.error("批量完成任务失败: " + e.getMessage());
         }
     }
 
     /**
-     * 获取流程实例详情
+     * 获取流程实例详情，启用分片时需传入实例所属租户
      */
     @GetMapping("/instance/{processInstanceId}")
-    public Result<ProcessInstanceVO> getProcessInstance(@PathVariable String processInstanceId) {
+    public Result<ProcessInstanceVO> getProcessInstance(@PathVariable String processInstanceId,
+                                                        @RequestParam(required = false) String tenantId) {
         try {
-            ProcessInstanceVO instance = processService.getProcessInstance(processInstanceId);
+            ProcessInstanceVO instance = processService.getProcessInstance(processInstanceId, tenantId);
             if (instance == null) {
                 return Result.error("流程实例不存在");
             }
@@ -112,26 +354,140 @@ public class ProcessController {
         }
     }
 
+    /**
+     * 获取已归档流程实例的明细（活动、任务、变量、审批意见），启用分片时需传入实例所属租户
+     */
+    @GetMapping("/archive/{processInstanceId}")
+    public Result<JsonNode> getArchivedInstance(@PathVariable String processInstanceId,
+                                                @RequestParam(required = false) String tenantId) {
+        try {
+            JsonNode payload = processArchiver.readPayload(processInstanceId, tenantId);
+            if (payload == null) {
+                return Result.error("归档记录不存在");
+            }
+            return Result.success(payload);
+        } catch (Exception e) {
+            return Result.error("获取归档记录失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 以 NDJSON 流式导出已结束的历史流程实例
+     * <p>
+     * 中断后以最后一行的 endTime、id 作为 afterEndTime、afterId 续传。导出中途失败时最后一行为 {"error": "原因"}，
+     * 之前的行仍然有效，可从最后一个实例续传。启用分片时导出 tenantId 所在分片。
+     */
+    @GetMapping(value = "/history/export", produces = "application/x-ndjson")
+    @RateLimited("export")
+    public void exportHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date endTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date afterEndTime,
+            @RequestParam(required = false) String afterId,
+            @RequestParam(required = false) String tenantId,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson;charset=UTF-8");
+        OutputStream outputStream = response.getOutputStream();
+        try {
+            historyExportService.export(tenantId, startTime, endTime, afterEndTime, afterId, outputStream);
+        } catch (Exception e) {
+            log.error("导出历史流程实例失败", e);
+            // 已写出的行不能撤回，追加一行错误让调用方知道导出不完整；客户端已断开时这里同样失败，交给容器处理
+            outputStream.write(objectMapper.writeValueAsBytes(
+                    Collections.singletonMap("error", "导出失败: " + e.getMessage())));
+            outputStream.write('\n');
+        }
+        outputStream.flush();
+    }
+
     /**
      * 获取流程图
+     * <p>
+     * 返回缓存的 PNG，支持 ETag/If-None-Match 协商，未变化时返回 304。启用分片时需传入流程定义所在分片的租户。
      */
     @GetMapping(value = "/diagram/{processDefinitionId}", produces = MediaType.IMAGE_PNG_VALUE)
-    public void getProcessDiagram(@PathVariable String processDefinitionId, HttpServletResponse response) {
+    @RateLimited("diagram")
+    public void getProcessDiagram(@PathVariable String processDefinitionId,
+                                  @RequestParam(required = false) String tenantId,
+                                  HttpServletRequest request, HttpServletResponse response) {
         try {
-            InputStream inputStream = processService.getProcessDiagram(processDefinitionId);
-            OutputStream outputStream = response.getOutputStream();
-            
-            byte[] buffer = new byte[1024];
-            int len;
-            while ((len = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, len);
+            ProcessDiagramService.Diagram diagram = processDiagramService.getDiagram(processDefinitionId, tenantId);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, diagramCacheControl);
+            if (new ServletWebRequest(request, response).checkNotModified(diagram.getEtag())) {
+                return;
             }
             
+            byte[] content = diagram.getContent();
+            response.setContentType(MediaType.IMAGE_PNG_VALUE);
+            response.setContentLength(content.length);
+            OutputStream outputStream = response.getOutputStream();
+            outputStream.write(content);
             outputStream.flush();
-            outputStream.close();
-            inputStream.close();
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("获取流程图失败 - 流程定义: {}", processDefinitionId, e);
+            sendErrorIfPossible(response);
         }
     }
+
+    /**
+     * 获取流程实例运行状态（当前节点、已完成节点和经过的连线），用于在缓存底图上高亮，启用分片时需传入实例所属租户
+     */
+    @GetMapping("/instance/{processInstanceId}/diagram")
+    @RateLimited("overlay")
+    public Result<ProcessDiagramStateVO> getInstanceDiagramState(@PathVariable String processInstanceId,
+                                                                 @RequestParam(required = false) String tenantId) {
+        try {
+            ProcessDiagramStateVO state = processDiagramService.getInstanceState(processInstanceId, tenantId);
+            if (state == null) {
+                return Result.error("流程实例不存在");
+            }
+            return Result.success(state);
+        } catch (Exception e) {
+            return Result.error("获取流程实例状态图失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取流程实例运行状态图（SVG，引用缓存底图并叠加高亮），启用分片时需传入实例所属租户
+     */
+    @GetMapping(value = "/instance/{processInstanceId}/diagram.svg", produces = "image/svg+xml")
+    @RateLimited("overlay")
+    public void getInstanceDiagramSvg(@PathVariable String processInstanceId,
+                                      @RequestParam(required = false) String tenantId, HttpServletResponse response) {
+        try {
+            ProcessDiagramStateVO state = processDiagramService.getInstanceState(processInstanceId, tenantId);
+            if (state == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            response.setContentType("image/svg+xml;charset=UTF-8");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.getWriter().write(processDiagramService.renderStateSvg(state));
+        } catch (Exception e) {
+            log.error("获取流程实例状态图失败 - 流程实例: {}", processInstanceId, e);
+            sendErrorIfPossible(response);
+        }
+    }
+
+    /**
+     * 响应尚未提交时返回 500，已提交时只能中止连接，交给容器处理
+     */
+    private static void sendErrorIfPossible(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } catch (IOException e) {
+            log.debug("返回错误状态失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取流程图缓存统计
+     */
+    @GetMapping("/diagram/cache/stats")
+    public Result<Map<String, Object>> getDiagramCacheStats() {
+        return Result.success(processDiagramService.getStats());
+    }
 }
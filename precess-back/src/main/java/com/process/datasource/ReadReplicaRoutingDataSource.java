@@ -0,0 +1,76 @@
+package com.process.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源
+ * <p>
+ * 只读事务中取连接时路由到副本，其余情况（读写事务、事务外的引擎操作、建表脚本等）路由到主库。
+ * 事务开始时连接还不能确定只读标志，因此必须包在 {@code LazyConnectionDataSourceProxy} 中使用，
+ * 等第一条语句执行时才真正获取连接。
+ * <p>
+ * 配置了 {@link ReplicaLagMonitor} 时，副本延迟超出上限或检测失败期间只读事务也使用主库。
+ * <p>
+ * 作为 MeterBinder 由 Spring Boot 在 MeterRegistry 创建后注册指标，
+ * 不在构造时依赖 MeterRegistry，避免与连接池指标（依赖所有 DataSource）形成循环依赖。
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    public static final String PRIMARY = "primary";
+
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final LongAdder primaryRoutes = new LongAdder();
+
+    private final LongAdder replicaRoutes = new LongAdder();
+
+    /**
+     * @param lagMonitor 为 null 时不检查副本延迟
+     */
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.lagMonitor = lagMonitor;
+    }
+
+    /**
+     * 注册 process.datasource.connections 指标（按路由目标统计的连接获取次数）
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        routeCounter(meterRegistry, PRIMARY, primaryRoutes);
+        routeCounter(meterRegistry, REPLICA, replicaRoutes);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && (lagMonitor == null || lagMonitor.isReplicaUsable())) {
+            replicaRoutes.increment();
+            return REPLICA;
+        }
+        primaryRoutes.increment();
+        return PRIMARY;
+    }
+
+    private static void routeCounter(MeterRegistry meterRegistry, String target, LongAdder routes) {
+        FunctionCounter.builder("process.datasource.connections", routes, LongAdder::sum)
+                .description("按路由目标统计的连接获取次数")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,144 @@
+package com.process.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 副本延迟检测
+ * <p>
+ * 定时向主库 PROC_REPLICA_HEARTBEAT 写入当前时间，同时读取主库和副本上的心跳值，
+ * 两者之差即副本落后的时间（精度为检测间隔）。延迟超过上限、副本上没有心跳或查询失败时，
+ * 视为副本不可用，只读事务回到主库，直到下一次检测恢复。首次检测完成前副本同样不可用。
+ * <p>
+ * 多个节点共用同一行心跳，任一节点写入都会推进副本上的值。
+ */
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String SELECT_SQL = "SELECT BEAT_TIME FROM PROC_REPLICA_HEARTBEAT WHERE ID = 1";
+
+    private static final String UPDATE_SQL = "UPDATE PROC_REPLICA_HEARTBEAT SET BEAT_TIME = ? WHERE ID = 1";
+
+    private static final String INSERT_SQL = "INSERT INTO PROC_REPLICA_HEARTBEAT (ID, BEAT_TIME) VALUES (1, ?)";
+
+    private final JdbcTemplate primary;
+
+    private final JdbcTemplate replica;
+
+    private final long maxLagMillis;
+
+    private final long intervalMillis;
+
+    private final AtomicLong lagMillis = new AtomicLong(-1);
+
+    private volatile boolean replicaUsable;
+
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Duration interval) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+        this.intervalMillis = interval.toMillis();
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 注册 process.datasource.replica.lag 指标（毫秒，未知时为 -1）
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("process.datasource.replica.lag", lagMillis, AtomicLong::get)
+                .description("只读副本落后主库的时间")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 副本延迟是否在上限之内
+     */
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * 最近一次检测到的副本延迟（毫秒），未知时为 -1
+     */
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+
+    private void check() {
+        try {
+            Long primaryBeat = beat(primary);
+            Long replicaBeat = beat(replica);
+            if (primaryBeat != null && replicaBeat != null) {
+                long lag = Math.max(0, primaryBeat - replicaBeat);
+                lagMillis.set(lag);
+                updateUsable(lag <= maxLagMillis, "延迟 " + lag + "ms");
+            } else {
+                lagMillis.set(-1);
+                updateUsable(false, "副本上没有心跳");
+            }
+            writeBeat(System.currentTimeMillis());
+        } catch (Exception e) {
+            lagMillis.set(-1);
+            updateUsable(false, e.getMessage());
+        }
+    }
+
+    private void updateUsable(boolean usable, String reason) {
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("只读副本恢复使用 - {}", reason);
+            } else {
+                log.warn("只读副本暂停使用，只读事务改走主库 - {}", reason);
+            }
+        }
+        replicaUsable = usable;
+    }
+
+    private static Long beat(JdbcTemplate jdbcTemplate) {
+        List<Long> beats = jdbcTemplate.queryForList(SELECT_SQL, Long.class);
+        return beats.isEmpty() ? null : beats.get(0);
+    }
+
+    private void writeBeat(long now) {
+        if (primary.update(UPDATE_SQL, now) == 0) {
+            try {
+                primary.update(INSERT_SQL, now);
+            } catch (DuplicateKeyException e) {
+                // 其他节点已插入
+                primary.update(UPDATE_SQL, now);
+            }
+        }
+    }
+}
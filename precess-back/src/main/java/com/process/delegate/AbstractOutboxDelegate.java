@@ -0,0 +1,54 @@
+package com.process.delegate;
+
+import com.process.metrics.ProcessMetrics;
+import com.process.outbox.OutboxService;
+import org.flowable.engine.delegate.DelegateExecution;
+import org.flowable.engine.delegate.JavaDelegate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 发件箱委托基类
+ * <p>
+ * 委托只修改流程变量，并把外部副作用（更新业务表、发送通知、记录审计日志等）写入发件箱，
+ * 与引擎事务一起提交；副作用由 OutboxDispatcher 在事务之外异步执行，不占用引擎线程和数据库事务。
+ * 幂等键默认为 主题:流程实例ID:活动ID，作业重试导致委托重复执行时不会重复入队。
+ */
+public abstract class AbstractOutboxDelegate implements JavaDelegate {
+
+    @Autowired
+    protected ProcessMetrics processMetrics;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Override
+    public final void execute(DelegateExecution execution) {
+        processMetrics.timeDelegate(getName(), execution.getProcessDefinitionId(), () -> doExecute(execution));
+    }
+
+    /**
+     * 委托名称，用于指标标签
+     */
+    protected abstract String getName();
+
+    /**
+     * 委托逻辑，在引擎事务中执行
+     */
+    protected abstract void doExecute(DelegateExecution execution);
+
+    /**
+     * 将副作用写入发件箱
+     *
+     * @return 是否写入了新消息（幂等键已存在时返回 false）
+     */
+    protected boolean publish(DelegateExecution execution, String topic, Object payload) {
+        return outboxService.enqueue(topic, messageKey(execution, topic), payload);
+    }
+
+    /**
+     * 幂等键
+     */
+    protected String messageKey(DelegateExecution execution, String topic) {
+        return topic + ":" + execution.getProcessInstanceId() + ":" + execution.getCurrentActivityId();
+    }
+}
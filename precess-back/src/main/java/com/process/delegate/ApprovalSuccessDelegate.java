@@ -1,36 +1,57 @@
 package com.process.delegate;
 
+import com.process.dto.ApprovalResultMessage;
+import com.process.outbox.handler.ApprovalAuditHandler;
+import com.process.outbox.handler.ApprovalNotificationHandler;
+import com.process.outbox.handler.ApprovalStatusHandler;
 import org.flowable.engine.delegate.DelegateExecution;
-import org.flowable.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.Date;
+
 /**
  * 审批通过处理委托
+ * <p>
+ * 更新业务表状态、通知申请人、记录审批日志都写入发件箱，由对应的 OutboxHandler 异步执行。
  */
 @Component
-public class ApprovalSuccessDelegate implements JavaDelegate {
+public class ApprovalSuccessDelegate extends AbstractOutboxDelegate {
     
     private static final Logger log = LoggerFactory.getLogger(ApprovalSuccessDelegate.class);
 
     @Override
-    public void execute(DelegateExecution execution) {
+    protected String getName() {
+        return "approvalSuccessDelegate";
+    }
+
+    @Override
+    protected void doExecute(DelegateExecution execution) {
         // 获取流程变量
         String processInstanceId = execution.getProcessInstanceId();
         String businessKey = execution.getProcessInstanceBusinessKey();
         
         log.info("审批通过 - 流程实例ID: {}, 业务Key: {}", processInstanceId, businessKey);
         
-        // 这里可以执行审批通过后的业务逻辑，例如：
-        // 1. 更新业务表状态
-        // 2. 发送通知给申请人
-        // 3. 记录审批日志
-        
         // 设置流程变量标识审批结果
-        execution.setVariable("finalResult", "approved");
-        execution.setVariable("approvalTime", System.currentTimeMillis());
+        long now = System.currentTimeMillis();
+        execution.setVariable("finalResult", ApprovalResultMessage.APPROVED);
+        execution.setVariable("approvalTime", now);
+        
+        // 外部副作用写入发件箱，随引擎事务提交
+        ApprovalResultMessage message = new ApprovalResultMessage();
+        message.setProcessInstanceId(processInstanceId);
+        message.setProcessDefinitionId(execution.getProcessDefinitionId());
+        message.setBusinessKey(businessKey);
+        message.setStartUserId((String) execution.getVariable("startUserId"));
+        message.setResult(ApprovalResultMessage.APPROVED);
+        message.setFinishTime(new Date(now));
+        publish(execution, ApprovalStatusHandler.TOPIC, message);
+        publish(execution, ApprovalNotificationHandler.TOPIC, message);
+        publish(execution, ApprovalAuditHandler.TOPIC, message);
         
+        processMetrics.approvalFinished(execution.getProcessDefinitionId(), ApprovalResultMessage.APPROVED);
         log.info("审批通过处理完成");
     }
 }
@@ -0,0 +1,49 @@
+package com.process.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 审批结果消息（发件箱消息内容）
+ */
+@Data
+public class ApprovalResultMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String APPROVED = "approved";
+
+    public static final String REJECTED = "rejected";
+
+    /**
+     * 流程实例ID
+     */
+    private String processInstanceId;
+
+    /**
+     * 流程定义ID
+     */
+    private String processDefinitionId;
+
+    /**
+     * 业务Key
+     */
+    private String businessKey;
+
+    /**
+     * 申请人
+     */
+    private String startUserId;
+
+    /**
+     * 审批结果：approved / rejected
+     */
+    private String result;
+
+    /**
+     * 审批完成时间
+     */
+    private Date finishTime;
+}
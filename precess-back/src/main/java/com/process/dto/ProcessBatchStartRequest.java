@@ -0,0 +1,24 @@
+package com.process.dto;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量启动流程请求 DTO
+ */
+@Data
+public class ProcessBatchStartRequest implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 待启动的流程列表（每项必须带业务 Key，用于查询启动结果）
+     */
+    @Valid
+    @NotEmpty(message = "启动列表不能为空")
+    private List<ProcessStartRequest> requests;
+}
@@ -40,4 +40,9 @@ public class ProcessStartRequest implements Serializable {
      */
     @NotBlank(message = "发起人不能为空")
     private String startUserId;
+    
+    /**
+     * 租户 ID，决定流程实例所在的分片
+     */
+    private String tenantId;
 }
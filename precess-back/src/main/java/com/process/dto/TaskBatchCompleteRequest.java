@@ -0,0 +1,31 @@
+package com.process.dto;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量完成任务请求 DTO
+ */
+@Data
+public class TaskBatchCompleteRequest implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 待完成的任务列表
+     */
+    @Valid
+    @NotEmpty(message = "任务列表不能为空")
+    private List<TaskCompleteRequest> tasks;
+    
+    /**
+     * 每个事务处理的任务数（为空时使用默认配置）
+     */
+    @Min(value = 1, message = "分块大小必须大于0")
+    private Integer chunkSize;
+}
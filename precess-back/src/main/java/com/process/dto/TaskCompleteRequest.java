@@ -40,4 +40,9 @@ public class TaskCompleteRequest implements Serializable {
      */
     @NotBlank(message = "处理人不能为空")
     private String userId;
+    
+    /**
+     * 租户 ID，用于定位任务所在的分片
+     */
+    private String tenantId;
 }
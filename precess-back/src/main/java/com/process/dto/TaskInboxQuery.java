@@ -0,0 +1,58 @@
+package com.process.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 待办任务分页查询条件
+ */
+@Data
+public class TaskInboxQuery implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 任务办理人
+     */
+    private String userId;
+    
+    /**
+     * 租户 ID，启用分片时用于定位待办所在分片，不传时查询默认分片
+     */
+    private String tenantId;
+    
+    /**
+     * 流程定义 Key
+     */
+    private String processDefinitionKey;
+    
+    /**
+     * 任务定义 Key
+     */
+    private String taskDefinitionKey;
+    
+    /**
+     * 到期时间不早于
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date dueAfter;
+    
+    /**
+     * 到期时间不晚于
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date dueBefore;
+    
+    /**
+     * 游标（上一页返回的 nextCursor，首页为空）
+     */
+    private String cursor;
+    
+    /**
+     * 每页条数
+     */
+    private Integer size;
+}
@@ -0,0 +1,192 @@
+package com.process.el;
+
+import org.flowable.common.engine.api.delegate.Expression;
+import org.flowable.common.engine.api.variable.VariableContainer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的简单条件表达式
+ * <p>
+ * 支持 <code>${变量 运算符 字面量}</code> 形式，运算符为 ==、!=、&lt;、&lt;=、&gt;、&gt;= 及 eq、ne、lt、le、gt、ge，
+ * 字面量为布尔、null、整数、小数或字符串。求值时直接读取变量并比较，不创建 ELContext、不经过解析器链；
+ * 变量不存在或类型不在下列范围内时交给原 UEL 表达式求值，结果与 UEL 的类型转换规则一致：
+ * <ul>
+ *     <li>布尔字面量：变量为 Boolean</li>
+ *     <li>数字字面量：变量为 Integer、Long、Short、Byte、Double、Float</li>
+ *     <li>字符串字面量：变量为 String</li>
+ *     <li>变量值为 null：== 为 false，!= 为 true，大小比较为 false</li>
+ * </ul>
+ */
+public class CompiledCondition implements Expression {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Pattern SIMPLE_COMPARISON = Pattern.compile(
+            "\\$\\{\\s*([A-Za-z_][A-Za-z0-9_]*)(?:\\s*(==|!=|<=|>=|<|>)\\s*|\\s+(eq|ne|le|ge|lt|gt)\\s+)"
+                    + "(true|false|null|-?\\d+(?:\\.\\d+)?|'[^'\\\\]*'|\"[^\"\\\\]*\")\\s*}");
+
+    /**
+     * EL 关键字和由引擎解析器特殊处理的名称，不能当作流程变量读取
+     */
+    private static final Set<String> RESERVED_NAMES = new HashSet<>(Arrays.asList(
+            "true", "false", "null", "empty", "not", "and", "or", "div", "mod", "instanceof",
+            "eq", "ne", "lt", "gt", "le", "ge",
+            "execution", "task", "variableContainer", "authenticatedUserId"));
+
+    private enum Operator {
+        EQ, NE, LT, LE, GT, GE
+    }
+
+    private final Expression fallback;
+
+    private final String variable;
+
+    private final Operator operator;
+
+    private final Object literal;
+
+    private CompiledCondition(Expression fallback, String variable, Operator operator, Object literal) {
+        this.fallback = fallback;
+        this.variable = variable;
+        this.operator = operator;
+        this.literal = literal;
+    }
+
+    /**
+     * 尝试编译条件表达式
+     *
+     * @param fallback 同一表达式的 UEL 版本，无法快速求值时使用
+     * @return 不是简单比较时返回 null
+     */
+    public static CompiledCondition compile(String expressionText, Expression fallback) {
+        Matcher matcher = SIMPLE_COMPARISON.matcher(expressionText.trim());
+        if (!matcher.matches() || RESERVED_NAMES.contains(matcher.group(1))) {
+            return null;
+        }
+        Operator operator = operatorOf(matcher.group(2) != null ? matcher.group(2) : matcher.group(3));
+        Object literal;
+        try {
+            literal = literalOf(matcher.group(4));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        boolean relational = operator != Operator.EQ && operator != Operator.NE;
+        if (relational && (literal == null || literal instanceof Boolean)) {
+            return null;
+        }
+        return new CompiledCondition(fallback, matcher.group(1), operator, literal);
+    }
+
+    @Override
+    public Object getValue(VariableContainer variableContainer) {
+        if (variableContainer != null) {
+            Object value = variableContainer.getVariable(variable);
+            if (value != null || variableContainer.hasVariable(variable)) {
+                Boolean result = test(value);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return fallback.getValue(variableContainer);
+    }
+
+    @Override
+    public void setValue(Object value, VariableContainer variableContainer) {
+        fallback.setValue(value, variableContainer);
+    }
+
+    @Override
+    public String getExpressionText() {
+        return fallback.getExpressionText();
+    }
+
+    /**
+     * 按 UEL 规则比较，无法确定时返回 null
+     */
+    private Boolean test(Object value) {
+        if (value == null) {
+            if (literal == null) {
+                return operator == Operator.EQ;
+            }
+            return operator == Operator.NE;
+        }
+        if (literal == null) {
+            return operator == Operator.NE;
+        }
+        if (literal instanceof Boolean) {
+            return value instanceof Boolean ? matches(value.equals(literal) ? 0 : 1) : null;
+        }
+        if (literal instanceof String) {
+            return value instanceof String ? matches(((String) value).compareTo((String) literal)) : null;
+        }
+        if (literal instanceof Long && isIntegral(value)) {
+            return matches(Long.compare(((Number) value).longValue(), (Long) literal));
+        }
+        if (isIntegral(value) || value instanceof Double || value instanceof Float) {
+            return matches(Double.compare(((Number) value).doubleValue(), ((Number) literal).doubleValue()));
+        }
+        return null;
+    }
+
+    private boolean matches(int comparison) {
+        switch (operator) {
+            case EQ:
+                return comparison == 0;
+            case NE:
+                return comparison != 0;
+            case LT:
+                return comparison < 0;
+            case LE:
+                return comparison <= 0;
+            case GT:
+                return comparison > 0;
+            default:
+                return comparison >= 0;
+        }
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static Operator operatorOf(String symbol) {
+        switch (symbol) {
+            case "==":
+            case "eq":
+                return Operator.EQ;
+            case "!=":
+            case "ne":
+                return Operator.NE;
+            case "<":
+            case "lt":
+                return Operator.LT;
+            case "<=":
+            case "le":
+                return Operator.LE;
+            case ">":
+            case "gt":
+                return Operator.GT;
+            default:
+                return Operator.GE;
+        }
+    }
+
+    private static Object literalOf(String text) {
+        if ("null".equals(text)) {
+            return null;
+        }
+        if ("true".equals(text) || "false".equals(text)) {
+            return Boolean.valueOf(text);
+        }
+        if (text.startsWith("'") || text.startsWith("\"")) {
+            return text.substring(1, text.length() - 1);
+        }
+        return text.contains(".") ? (Object) Double.valueOf(text) : (Object) Long.valueOf(text);
+    }
+}
@@ -0,0 +1,36 @@
+package com.process.el;
+
+import org.flowable.common.engine.impl.AbstractEngineConfiguration;
+import org.flowable.common.engine.impl.EngineConfigurator;
+import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+/**
+ * 在引擎初始化完成后用 {@link ConditionExpressionManager} 包装表达式管理器
+ * <p>
+ * 表达式管理器依赖的 Bean 解析、委托拦截器等在引擎初始化过程中才创建，因此不能在配置阶段直接替换。
+ * 初始化期间已持有原管理器的组件不受影响，运行时通过引擎配置获取管理器的地方（如连线条件求值）使用包装后的版本。
+ */
+public class ConditionExpressionConfigurator implements EngineConfigurator {
+
+    private final int cacheSize;
+
+    public ConditionExpressionConfigurator(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public void beforeInit(AbstractEngineConfiguration engineConfiguration) {
+    }
+
+    @Override
+    public void configure(AbstractEngineConfiguration engineConfiguration) {
+        ProcessEngineConfigurationImpl processEngineConfiguration = (ProcessEngineConfigurationImpl) engineConfiguration;
+        processEngineConfiguration.setExpressionManager(
+                new ConditionExpressionManager(processEngineConfiguration.getExpressionManager(), cacheSize));
+    }
+
+    @Override
+    public int getPriority() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,111 @@
+package com.process.el;
+
+import org.flowable.common.engine.api.delegate.Expression;
+import org.flowable.common.engine.api.delegate.FlowableFunctionDelegate;
+import org.flowable.common.engine.api.variable.VariableContainer;
+import org.flowable.common.engine.impl.el.ExpressionManager;
+import org.flowable.common.engine.impl.el.FlowableAstFunctionCreator;
+import org.flowable.common.engine.impl.javax.el.ELContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带条件预编译的表达式管理器
+ * <p>
+ * 引擎每次经过网关都会用连线上的条件文本调用 createExpression。这里按表达式文本缓存结果：
+ * 简单比较编译为 {@link CompiledCondition}，其余表达式缓存引擎原有的 UEL 表达式。
+ * 缓存最多 cacheSize 条，满后新表达式不再缓存（每次交给引擎解析），保证内存有界。
+ * 其余方法全部委托给引擎原有的表达式管理器。
+ */
+public class ConditionExpressionManager implements ExpressionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ConditionExpressionManager.class);
+
+    private final ExpressionManager delegate;
+
+    private final int cacheSize;
+
+    private final Map<String, Expression> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong compiled = new AtomicLong();
+
+    public ConditionExpressionManager(ExpressionManager delegate, int cacheSize) {
+        this.delegate = delegate;
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public Expression createExpression(String expression) {
+        Expression cached = cache.get(expression);
+        if (cached != null) {
+            return cached;
+        }
+
+        Expression uelExpression = delegate.createExpression(expression);
+        CompiledCondition condition = CompiledCondition.compile(expression, uelExpression);
+        Expression result = condition != null ? condition : uelExpression;
+        if (cache.size() < cacheSize && cache.putIfAbsent(expression, result) == null && condition != null) {
+            compiled.incrementAndGet();
+            log.debug("条件表达式已预编译: {}", expression);
+        }
+        return result;
+    }
+
+    /**
+     * 缓存的表达式数
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * 缓存中预编译的简单条件数
+     */
+    public long getCompiledCount() {
+        return compiled.get();
+    }
+
+    public ExpressionManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public ELContext getElContext(VariableContainer variableContainer) {
+        return delegate.getElContext(variableContainer);
+    }
+
+    @Override
+    public Map<Object, Object> getBeans() {
+        return delegate.getBeans();
+    }
+
+    @Override
+    public void setBeans(Map<Object, Object> beans) {
+        delegate.setBeans(beans);
+    }
+
+    @Override
+    public List<FlowableFunctionDelegate> getFunctionDelegates() {
+        return delegate.getFunctionDelegates();
+    }
+
+    @Override
+    public void setFunctionDelegates(List<FlowableFunctionDelegate> functionDelegates) {
+        delegate.setFunctionDelegates(functionDelegates);
+    }
+
+    @Override
+    public List<FlowableAstFunctionCreator> getAstFunctionCreators() {
+        return delegate.getAstFunctionCreators();
+    }
+
+    @Override
+    public void setAstFunctionCreators(List<FlowableAstFunctionCreator> astFunctionCreators) {
+        delegate.setAstFunctionCreators(astFunctionCreators);
+    }
+}
@@ -0,0 +1,25 @@
+package com.process.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 流程部署完成事件
+ */
+public class ProcessDeployedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 部署 ID
+     */
+    private final String deploymentId;
+
+    public ProcessDeployedEvent(Object source, String deploymentId) {
+        super(source);
+        this.deploymentId = deploymentId;
+    }
+
+    public String getDeploymentId() {
+        return deploymentId;
+    }
+}
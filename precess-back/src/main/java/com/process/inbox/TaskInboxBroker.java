@@ -0,0 +1,286 @@
+package com.process.inbox;
+
+import com.process.vo.TaskVO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 待办变更内存推送
+ * <p>
+ * 按办理人分发任务事件。最近 history-size 条事件保留在内存中，订阅时带上最后收到的事件 ID 即可补发断线期间的变更；
+ * 超出保留范围或服务重启后无法续传，先推送 reset 事件，客户端重新拉取完整列表。
+ * <p>
+ * 每个订阅者有独立的有界缓冲区，由发送线程池异步写出，慢客户端不会阻塞引擎事务。缓冲区满时断开该订阅者，
+ * 客户端重连后从最后收到的事件 ID 续传。事件只在本节点内分发，多节点部署时需让客户端固定连接到同一节点，
+ * 或在重连后收到 reset 时重新拉取。
+ */
+@Component
+public class TaskInboxBroker {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskInboxBroker.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 每个订阅者最多缓冲的待发送事件数
+     */
+    @Value("${process.inbox.stream.buffer-size:256}")
+    private int bufferSize;
+
+    /**
+     * 保留用于续传的最近事件数
+     */
+    @Value("${process.inbox.stream.history-size:10000}")
+    private int historySize;
+
+    /**
+     * 连接超时时间（毫秒），超时后客户端自动重连
+     */
+    @Value("${process.inbox.stream.timeout:1800000}")
+    private long timeout;
+
+    /**
+     * 心跳间隔（毫秒），用于保持连接并及时发现已断开的客户端
+     */
+    @Value("${process.inbox.stream.heartbeat-interval:15000}")
+    private long heartbeatInterval;
+
+    @Value("${process.inbox.stream.sender-threads:2}")
+    private int senderThreads;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 最近的事件，分配 ID、写入历史和投递给订阅者都在该锁内完成，保证每个订阅者按 ID 顺序收到且续传不重不漏
+     */
+    private final ArrayDeque<TaskInboxEvent> history = new ArrayDeque<>();
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private ExecutorService sender;
+
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "inbox-sender-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inbox-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("process.inbox.subscribers", subscriberCount, AtomicInteger::get)
+                .description("待办变更推送的订阅连接数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        heartbeat.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdownNow();
+    }
+
+    /**
+     * 向任务的办理人发布任务变更，没有办理人的任务不推送
+     */
+    public void publish(String type, TaskVO task) {
+        publish(type, task.getAssignee(), task);
+    }
+
+    /**
+     * 向指定办理人发布任务变更（如任务转办后通知原办理人），userId 为空时不推送
+     */
+    public void publish(String type, String userId, TaskVO task) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (history) {
+            TaskInboxEvent event = new TaskInboxEvent(sequence.incrementAndGet(), type, userId, task);
+            history.addLast(event);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            Set<Subscriber> targets = subscribers.get(userId);
+            if (targets != null) {
+                targets.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+    }
+
+    /**
+     * 订阅办理人的待办变更
+     *
+     * @param lastEventId 最后收到的事件 ID，不为空时先补发之后的事件
+     */
+    public SseEmitter subscribe(String userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        synchronized (history) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        subscriberCount.incrementAndGet();
+        log.debug("待办订阅 - 用户: {}, 续传自: {}", userId, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * 当前订阅连接数
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) {
+        long oldest = history.isEmpty() ? sequence.get() + 1 : history.peekFirst().getId();
+        if (lastEventId > sequence.get() || lastEventId < oldest - 1) {
+            subscriber.offer(new TaskInboxEvent(sequence.get(), TaskInboxEvent.RESET, subscriber.userId, null));
+            return;
+        }
+        List<TaskInboxEvent> missed = new ArrayList<>();
+        for (TaskInboxEvent event : history) {
+            if (event.getId() > lastEventId && subscriber.userId.equals(event.getUserId())) {
+                missed.add(event);
+            }
+        }
+        // 补发的事件放不进缓冲区时，重新拉取列表比逐条补发更快
+        if (missed.size() >= bufferSize) {
+            subscriber.offer(new TaskInboxEvent(sequence.get(), TaskInboxEvent.RESET, subscriber.userId, null));
+            return;
+        }
+        missed.forEach(subscriber::offer);
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            Set<Subscriber> set = subscribers.get(subscriber.userId);
+            if (set != null) {
+                set.remove(subscriber);
+            }
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (Exception e) {
+                subscriber.close();
+            }
+        }));
+    }
+
+    /**
+     * 订阅者，事件先放入有界缓冲区，再由发送线程写出
+     */
+    private class Subscriber {
+
+        private final String userId;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<TaskInboxEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(TaskInboxEvent event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                log.warn("待办推送缓冲区已满，断开订阅等待客户端续传 - 用户: {}", userId);
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                TaskInboxEvent event;
+                while ((event = buffer.poll()) != null) {
+                    if (!send(event)) {
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(TaskInboxEvent event) {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                    .id(String.valueOf(event.getId()))
+                    .name(event.getType());
+            if (event.getTask() != null) {
+                builder.data(event.getTask(), MediaType.APPLICATION_JSON);
+            } else {
+                builder.data("");
+            }
+            try {
+                emitter.send(builder);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                close();
+                return false;
+            }
+        }
+
+        void close() {
+            remove(this);
+            emitter.complete();
+        }
+    }
+}
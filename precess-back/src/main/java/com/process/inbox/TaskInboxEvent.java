@@ -0,0 +1,59 @@
+package com.process.inbox;
+
+import com.process.vo.TaskVO;
+
+/**
+ * 待办变更事件
+ * <p>
+ * 推送时 id 作为 SSE 事件 ID（客户端断线重连时以 Last-Event-ID 带回），type 作为事件名，task 作为数据。
+ * userId 为接收事件的办理人，通常即任务的办理人；removed 事件发给任务原来的办理人。
+ */
+public class TaskInboxEvent {
+
+    public static final String CREATED = "created";
+
+    public static final String ASSIGNED = "assigned";
+
+    public static final String COMPLETED = "completed";
+
+    /**
+     * 任务已转给其他办理人，客户端从列表中移除；数据中的 assignee 为新办理人
+     */
+    public static final String REMOVED = "removed";
+
+    /**
+     * 无法从指定的事件 ID 续传（已超出保留范围或服务已重启），客户端需重新拉取完整待办列表
+     */
+    public static final String RESET = "reset";
+
+    private final long id;
+
+    private final String type;
+
+    private final String userId;
+
+    private final TaskVO task;
+
+    public TaskInboxEvent(long id, String type, String userId, TaskVO task) {
+        this.id = id;
+        this.type = type;
+        this.userId = userId;
+        this.task = task;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public TaskVO getTask() {
+        return task;
+    }
+}
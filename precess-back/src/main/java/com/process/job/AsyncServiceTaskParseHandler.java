@@ -0,0 +1,28 @@
+package com.process.job;
+
+import org.flowable.bpmn.model.BaseElement;
+import org.flowable.bpmn.model.ServiceTask;
+import org.flowable.engine.impl.bpmn.parser.BpmnParse;
+import org.flowable.engine.impl.bpmn.parser.handler.AbstractBpmnParseHandler;
+
+/**
+ * 将服务任务标记为异步（排他）
+ * <p>
+ * 完成用户任务的事务只写入一条异步作业并提交，委托逻辑及其后的流转由作业线程执行；
+ * 同一流程实例的作业排他执行，不会并发推进同一实例。BPMN 中已显式声明的服务任务保持原样。
+ */
+public class AsyncServiceTaskParseHandler extends AbstractBpmnParseHandler<ServiceTask> {
+
+    @Override
+    protected Class<? extends BaseElement> getHandledType() {
+        return ServiceTask.class;
+    }
+
+    @Override
+    protected void executeParse(BpmnParse bpmnParse, ServiceTask serviceTask) {
+        if (!serviceTask.isAsynchronous()) {
+            serviceTask.setAsynchronous(true);
+            serviceTask.setExclusive(true);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.process.job;
+
+import com.process.metrics.ProcessMetrics;
+import org.flowable.common.engine.impl.async.AsyncTaskExecutorConfiguration;
+import org.flowable.common.engine.impl.async.DefaultAsyncTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步作业线程池
+ * <p>
+ * 有界队列 + 可替换的线程工厂，每个作业记录排队等待和执行耗时。
+ */
+public class JobTaskExecutor extends DefaultAsyncTaskExecutor {
+
+    private final ProcessMetrics processMetrics;
+
+    public JobTaskExecutor(AsyncTaskExecutorConfiguration configuration, ProcessMetrics processMetrics) {
+        super(configuration);
+        this.processMetrics = processMetrics;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        super.execute(processMetrics.timeJob(task));
+    }
+
+    @Override
+    public CompletableFuture<?> submit(Runnable task) {
+        return super.submit(processMetrics.timeJob(task));
+    }
+}
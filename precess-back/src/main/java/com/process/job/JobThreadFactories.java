@@ -0,0 +1,60 @@
+package com.process.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 作业线程工厂
+ * <p>
+ * platform 为普通守护线程；virtual 在 JDK 21+ 上通过反射创建虚拟线程工厂，
+ * 项目仍以 Java 8 编译，低版本 JDK 上自动回退为 platform。
+ */
+public final class JobThreadFactories {
+
+    private static final Logger log = LoggerFactory.getLogger(JobThreadFactories.class);
+
+    public static final String PLATFORM = "platform";
+
+    public static final String VIRTUAL = "virtual";
+
+    private JobThreadFactories() {
+    }
+
+    public static ThreadFactory create(String type, String namePrefix) {
+        if (VIRTUAL.equalsIgnoreCase(type)) {
+            ThreadFactory factory = virtualThreadFactory(namePrefix);
+            if (factory != null) {
+                return factory;
+            }
+            log.warn("当前 JDK {} 不支持虚拟线程，作业线程回退为 platform", System.getProperty("java.version"));
+        } else if (!PLATFORM.equalsIgnoreCase(type)) {
+            throw new IllegalArgumentException("不支持的作业线程类型: " + type);
+        }
+        return platformThreadFactory(namePrefix);
+    }
+
+    private static ThreadFactory platformThreadFactory(String namePrefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, namePrefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.process.listener;
+
+import com.process.service.ProcessDefinitionCacheService;
+import org.flowable.common.engine.api.delegate.event.FlowableEngineEventType;
+import org.flowable.common.engine.api.delegate.event.FlowableEntityEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEventListener;
+import org.flowable.common.engine.api.delegate.event.FlowableEventType;
+import org.flowable.common.engine.impl.cfg.TransactionContext;
+import org.flowable.common.engine.impl.cfg.TransactionState;
+import org.flowable.common.engine.impl.context.Context;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 流程定义变更监听
+ * <p>
+ * 流程定义新增、挂起、激活时，在事务提交后使流程定义缓存失效。
+ */
+@Component
+public class ProcessDefinitionChangeListener implements FlowableEventListener {
+
+    @Autowired
+    private ProcessDefinitionCacheService processDefinitionCacheService;
+
+    @Override
+    public void onEvent(FlowableEvent event) {
+        if (!(event instanceof FlowableEntityEvent)
+                || !(((FlowableEntityEvent) event).getEntity() instanceof ProcessDefinition)) {
+            return;
+        }
+        FlowableEventType type = event.getType();
+        if (type != FlowableEngineEventType.ENTITY_CREATED
+                && type != FlowableEngineEventType.ENTITY_SUSPENDED
+                && type != FlowableEngineEventType.ENTITY_ACTIVATED) {
+            return;
+        }
+
+        String reason = type + " " + ((ProcessDefinition) ((FlowableEntityEvent) event).getEntity()).getId();
+        TransactionContext transactionContext = Context.getTransactionContext();
+        if (transactionContext != null) {
+            transactionContext.addTransactionListener(TransactionState.COMMITTED,
+                    commandContext -> processDefinitionCacheService.invalidate(reason));
+        } else {
+            processDefinitionCacheService.invalidate(reason);
+        }
+    }
+
+    @Override
+    public boolean isFailOnException() {
+        return false;
+    }
+
+    @Override
+    public boolean isFireOnTransactionLifecycleEvent() {
+        return false;
+    }
+
+    @Override
+    public String getOnTransaction() {
+        return null;
+    }
+}
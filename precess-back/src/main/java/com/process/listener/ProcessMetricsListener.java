@@ -0,0 +1,83 @@
+package com.process.listener;
+
+import com.process.metrics.ProcessMetrics;
+import org.flowable.common.engine.api.delegate.event.FlowableEngineEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEngineEventType;
+import org.flowable.common.engine.api.delegate.event.FlowableEntityEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEventListener;
+import org.flowable.common.engine.impl.cfg.TransactionContext;
+import org.flowable.common.engine.impl.cfg.TransactionState;
+import org.flowable.common.engine.impl.context.Context;
+import org.flowable.job.api.Job;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 流程指标监听
+ * <p>
+ * 流程启动、结束和任务完成时计数，在事务提交后才记录，回滚的操作不计入；
+ * 异步作业执行结束时记录从创建到执行完成的延迟。
+ */
+@Component
+public class ProcessMetricsListener implements FlowableEventListener {
+
+    @Autowired
+    private ProcessMetrics processMetrics;
+
+    @Override
+    public void onEvent(FlowableEvent event) {
+        if (event.getType() == FlowableEngineEventType.JOB_EXECUTION_SUCCESS) {
+            jobExecuted(event, "success");
+            return;
+        } else if (event.getType() == FlowableEngineEventType.JOB_EXECUTION_FAILURE) {
+            jobExecuted(event, "error");
+            return;
+        }
+        if (!(event instanceof FlowableEngineEvent)) {
+            return;
+        }
+        String processDefinitionId = ((FlowableEngineEvent) event).getProcessDefinitionId();
+        if (event.getType() == FlowableEngineEventType.PROCESS_STARTED) {
+            afterCommit(processDefinitionId, processMetrics::processStarted);
+        } else if (event.getType() == FlowableEngineEventType.PROCESS_COMPLETED) {
+            afterCommit(processDefinitionId, processMetrics::processCompleted);
+        } else if (event.getType() == FlowableEngineEventType.TASK_COMPLETED) {
+            afterCommit(processDefinitionId, processMetrics::taskCompleted);
+        }
+    }
+
+    private void jobExecuted(FlowableEvent event, String outcome) {
+        if (event instanceof FlowableEntityEvent && ((FlowableEntityEvent) event).getEntity() instanceof Job) {
+            Job job = (Job) ((FlowableEntityEvent) event).getEntity();
+            processMetrics.jobExecuted(job.getJobHandlerType(), job.getCreateTime(), outcome);
+        }
+    }
+
+    private static void afterCommit(String processDefinitionId, Consumer<String> action) {
+        TransactionContext transactionContext = Context.getTransactionContext();
+        if (transactionContext != null) {
+            transactionContext.addTransactionListener(TransactionState.COMMITTED,
+                    commandContext -> action.accept(processDefinitionId));
+        } else {
+            action.accept(processDefinitionId);
+        }
+    }
+
+    @Override
+    public boolean isFailOnException() {
+        return false;
+    }
+
+    @Override
+    public boolean isFireOnTransactionLifecycleEvent() {
+        return false;
+    }
+
+    @Override
+    public String getOnTransaction() {
+        return null;
+    }
+}
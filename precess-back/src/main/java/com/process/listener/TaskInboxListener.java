@@ -0,0 +1,190 @@
+package com.process.listener;
+
+import com.process.inbox.TaskInboxBroker;
+import com.process.inbox.TaskInboxEvent;
+import com.process.service.ProcessService;
+import com.process.service.TaskInboxCacheService;
+import com.process.vo.TaskVO;
+import org.flowable.common.engine.api.delegate.event.FlowableEngineEventType;
+import org.flowable.common.engine.api.delegate.event.FlowableEntityEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEventListener;
+import org.flowable.common.engine.impl.cfg.TransactionContext;
+import org.flowable.common.engine.impl.cfg.TransactionState;
+import org.flowable.common.engine.impl.context.Context;
+import org.flowable.common.engine.impl.interceptor.CommandContext;
+import org.flowable.common.engine.impl.persistence.entity.Entity;
+import org.flowable.task.api.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 待办变更监听
+ * <p>
+ * 同一命令中的任务事件（创建、指派、更新、完成、删除）按任务合并，提交后按每个任务变更前后的办理人生成变更：
+ * 任务离开原办理人时通知其移除（完成的发 completed，转办、删除的发 removed），到达新办理人时发 created 或 assigned。
+ * 同一命令中 A→B→C 的转办只涉及 A 和 C。回滚的变更不推送。
+ * <p>
+ * 同时维护待办缓存：提交后在独立的短事务中为每个涉及的办理人推进一次版本号，再增量更新本节点缓存，
+ * 不在引擎事务中持有版本号的行锁。
+ */
+@Component
+public class TaskInboxListener implements FlowableEventListener {
+
+    private static final String CHANGES_ATTRIBUTE = TaskInboxListener.class.getName() + ".changes";
+
+    @Autowired
+    private TaskInboxBroker taskInboxBroker;
+
+    @Autowired
+    private TaskInboxCacheService taskInboxCacheService;
+
+    @Override
+    public void onEvent(FlowableEvent event) {
+        if (!(event instanceof FlowableEntityEvent) || !(((FlowableEntityEvent) event).getEntity() instanceof Task)) {
+            return;
+        }
+        Task task = (Task) ((FlowableEntityEvent) event).getEntity();
+        if (event.getType() == FlowableEngineEventType.TASK_CREATED) {
+            changeOf(task, true).created = true;
+        } else if (event.getType() == FlowableEngineEventType.TASK_ASSIGNED
+                || event.getType() == FlowableEngineEventType.ENTITY_UPDATED) {
+            changeOf(task, false);
+        } else if (event.getType() == FlowableEngineEventType.TASK_COMPLETED) {
+            changeOf(task, false).completed = true;
+        } else if (event.getType() == FlowableEngineEventType.ENTITY_DELETED) {
+            changeOf(task, false).deleted = true;
+        }
+    }
+
+    /**
+     * 当前命令中该任务的变更，首次出现时记录变更前的办理人，并注册提交后的处理
+     */
+    private TaskChange changeOf(Task task, boolean created) {
+        Map<String, TaskChange> changes = changes();
+        TaskChange change = changes.get(task.getId());
+        if (change == null) {
+            change = new TaskChange(task, created ? null : originalAssignee(task));
+            changes.put(task.getId(), change);
+        }
+        return change;
+    }
+
+    /**
+     * 任务实体加载时记录的持久化状态中的办理人，即本命令之前已落库的值，不需要再查询
+     */
+    private static String originalAssignee(Task task) {
+        Object state = task instanceof Entity ? ((Entity) task).getOriginalPersistentState() : null;
+        return state instanceof Map ? (String) ((Map<?, ?>) state).get("assignee") : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, TaskChange> changes() {
+        CommandContext commandContext = Context.getCommandContext();
+        Map<String, TaskChange> changes = (Map<String, TaskChange>) commandContext.getAttribute(CHANGES_ATTRIBUTE);
+        if (changes == null) {
+            Map<String, TaskChange> created = new LinkedHashMap<>();
+            commandContext.addAttribute(CHANGES_ATTRIBUTE, created);
+            afterCommit(() -> apply(created.values()));
+            changes = created;
+        }
+        return changes;
+    }
+
+    private void apply(Collection<TaskChange> changes) {
+        // 每个办理人只推进一次版本号
+        Set<String> assignees = new TreeSet<>();
+        for (TaskChange change : changes) {
+            if (change.leaves()) {
+                assignees.add(change.previous);
+            }
+            if (change.arrives()) {
+                assignees.add(change.task.getAssignee());
+            }
+        }
+        Map<String, Long> versions = taskInboxCacheService.nextVersions(assignees);
+
+        for (TaskChange change : changes) {
+            TaskVO vo = ProcessService.convertToTaskVO(change.task);
+            if (change.leaves()) {
+                taskInboxCacheService.applyRemove(change.previous, versions.get(change.previous), vo.getId());
+                taskInboxBroker.publish(change.completed ? TaskInboxEvent.COMPLETED : TaskInboxEvent.REMOVED,
+                        change.previous, vo);
+            }
+            if (change.arrives()) {
+                taskInboxCacheService.applyUpsert(vo.getAssignee(), versions.get(vo.getAssignee()), vo);
+                if (!vo.getAssignee().equals(change.previous)) {
+                    taskInboxBroker.publish(change.created ? TaskInboxEvent.CREATED : TaskInboxEvent.ASSIGNED, vo);
+                }
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionContext transactionContext = Context.getTransactionContext();
+        if (transactionContext != null) {
+            transactionContext.addTransactionListener(TransactionState.COMMITTED, commandContext -> action.run());
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public boolean isFailOnException() {
+        return false;
+    }
+
+    @Override
+    public boolean isFireOnTransactionLifecycleEvent() {
+        return false;
+    }
+
+    @Override
+    public String getOnTransaction() {
+        return null;
+    }
+
+    /**
+     * 一个任务在当前命令中的变更
+     */
+    private static class TaskChange {
+
+        private final Task task;
+
+        /**
+         * 命令开始前的办理人，本命令中创建的任务为 null
+         */
+        private final String previous;
+
+        private boolean created;
+
+        private boolean completed;
+
+        private boolean deleted;
+
+        TaskChange(Task task, String previous) {
+            this.task = task;
+            this.previous = previous;
+        }
+
+        /**
+         * 任务是否离开原办理人的列表
+         */
+        boolean leaves() {
+            return previous != null && (deleted || completed || !previous.equals(task.getAssignee()));
+        }
+
+        /**
+         * 任务是否在（新）办理人的列表中，更新过的任务需要刷新
+         */
+        boolean arrives() {
+            return !deleted && !completed && task.getAssignee() != null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.process.mapper;
+
+import com.process.archive.ArchivedInstance;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 流程实例归档表读写
+ */
+@Mapper
+public interface ArchiveMapper {
+
+    @Insert("<script>"
+            + "INSERT INTO PROC_ARCHIVE_INSTANCE (ID, PROC_DEF_ID, PROC_DEF_KEY, PROC_DEF_NAME, BUSINESS_KEY, NAME,"
+            + " START_USER_ID, START_TIME, END_TIME, ARCHIVE_TIME, PAYLOAD) VALUES"
+            + "<foreach collection='instances' item='i' separator=','>"
+            + "(#{i.id}, #{i.processDefinitionId}, #{i.processDefinitionKey}, #{i.processDefinitionName}, #{i.businessKey},"
+            + " #{i.name}, #{i.startUserId}, #{i.startTime}, #{i.endTime}, #{i.archiveTime}, #{i.payload})"
+            + "</foreach>"
+            + "</script>")
+    int insertBatch(@Param("instances") List<ArchivedInstance> instances);
+
+    /**
+     * 按 ID 查询，不加载明细
+     */
+    @Select("SELECT ID AS id, PROC_DEF_ID AS processDefinitionId, PROC_DEF_KEY AS processDefinitionKey,"
+            + " PROC_DEF_NAME AS processDefinitionName, BUSINESS_KEY AS businessKey, NAME AS name,"
+            + " START_USER_ID AS startUserId, START_TIME AS startTime, END_TIME AS endTime, ARCHIVE_TIME AS archiveTime"
+            + " FROM PROC_ARCHIVE_INSTANCE WHERE ID = #{id}")
+    ArchivedInstance selectById(@Param("id") String id);
+
+    /**
+     * 按 ID 查询明细
+     */
+    @Select("SELECT ID AS id, PAYLOAD AS payload FROM PROC_ARCHIVE_INSTANCE WHERE ID = #{id}")
+    ArchivedInstance selectPayload(@Param("id") String id);
+
+    @Select("SELECT COUNT(*) FROM PROC_ARCHIVE_INSTANCE")
+    long count();
+}
@@ -0,0 +1,81 @@
+package com.process.mapper;
+
+import com.process.outbox.OutboxMessage;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 发件箱表读写
+ * <p>
+ * 投递前先按 ID 认领（PENDING -> PROCESSING 并写入 LOCK_OWNER），只有认领成功的消息才会被本节点投递，
+ * 多节点同时拉取也不会重复投递。认领后超过锁定时间仍未完成的消息视为节点失效，会被放回待投递状态。
+ */
+@Mapper
+public interface OutboxMapper {
+
+    @Insert("INSERT INTO PROC_OUTBOX (MESSAGE_KEY, TOPIC, PAYLOAD, STATUS, ATTEMPTS, NEXT_ATTEMPT_TIME, CREATE_TIME, UPDATE_TIME)"
+            + " VALUES (#{messageKey}, #{topic}, #{payload}, #{status}, #{attempts}, #{nextAttemptTime}, #{createTime}, #{updateTime})")
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "ID")
+    int insert(OutboxMessage message);
+
+    @Select("SELECT COUNT(*) FROM PROC_OUTBOX WHERE MESSAGE_KEY = #{messageKey}")
+    int countByKey(@Param("messageKey") String messageKey);
+
+    @Select("SELECT ID FROM PROC_OUTBOX WHERE STATUS = 'PENDING' AND NEXT_ATTEMPT_TIME <= #{now}"
+            + " ORDER BY NEXT_ATTEMPT_TIME, ID LIMIT #{limit}")
+    List<Long> selectDueIds(@Param("now") Date now, @Param("limit") int limit);
+
+    @Update("<script>"
+            + "UPDATE PROC_OUTBOX SET STATUS = 'PROCESSING', LOCK_OWNER = #{owner}, LOCK_TIME = #{now}, UPDATE_TIME = #{now}"
+            + " WHERE STATUS = 'PENDING' AND ID IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int claim(@Param("ids") List<Long> ids, @Param("owner") String owner, @Param("now") Date now);
+
+    @Select("<script>"
+            + "SELECT ID AS id, MESSAGE_KEY AS messageKey, TOPIC AS topic, PAYLOAD AS payload, STATUS AS status,"
+            + " ATTEMPTS AS attempts, NEXT_ATTEMPT_TIME AS nextAttemptTime, LOCK_OWNER AS lockOwner, LOCK_TIME AS lockTime,"
+            + " CREATE_TIME AS createTime, UPDATE_TIME AS updateTime"
+            + " FROM PROC_OUTBOX WHERE STATUS = 'PROCESSING' AND LOCK_OWNER = #{owner}"
+            + " AND ID IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + " ORDER BY ID"
+            + "</script>")
+    List<OutboxMessage> selectClaimed(@Param("ids") List<Long> ids, @Param("owner") String owner);
+
+    @Update("<script>"
+            + "UPDATE PROC_OUTBOX SET STATUS = 'DONE', ATTEMPTS = ATTEMPTS + 1, LOCK_OWNER = NULL, LOCK_TIME = NULL,"
+            + " LAST_ERROR = NULL, UPDATE_TIME = #{now}"
+            + " WHERE LOCK_OWNER = #{owner} AND ID IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int markDone(@Param("ids") List<Long> ids, @Param("owner") String owner, @Param("now") Date now);
+
+    @Update("UPDATE PROC_OUTBOX SET STATUS = #{status}, ATTEMPTS = #{attempts}, NEXT_ATTEMPT_TIME = #{nextAttemptTime},"
+            + " LOCK_OWNER = NULL, LOCK_TIME = NULL, LAST_ERROR = #{lastError}, UPDATE_TIME = #{now}"
+            + " WHERE ID = #{id} AND LOCK_OWNER = #{owner}")
+    int markFailed(@Param("id") Long id, @Param("owner") String owner, @Param("status") String status,
+                   @Param("attempts") int attempts, @Param("nextAttemptTime") Date nextAttemptTime,
+                   @Param("lastError") String lastError, @Param("now") Date now);
+
+    @Update("UPDATE PROC_OUTBOX SET STATUS = 'PENDING', LOCK_OWNER = NULL, LOCK_TIME = NULL, UPDATE_TIME = #{now}"
+            + " WHERE STATUS = 'PROCESSING' AND LOCK_TIME < #{lockExpiredBefore}")
+    int releaseExpired(@Param("lockExpiredBefore") Date lockExpiredBefore, @Param("now") Date now);
+
+    @Select("SELECT ID FROM PROC_OUTBOX WHERE STATUS = 'DONE' AND UPDATE_TIME < #{before} ORDER BY ID LIMIT #{limit}")
+    List<Long> selectDoneBefore(@Param("before") Date before, @Param("limit") int limit);
+
+    @Delete("<script>"
+            + "DELETE FROM PROC_OUTBOX WHERE STATUS = 'DONE'"
+            + " AND ID IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    @Select("SELECT COUNT(*) FROM PROC_OUTBOX WHERE STATUS = #{status}")
+    long countByStatus(@Param("status") String status);
+}
@@ -0,0 +1,44 @@
+package com.process.mapper;
+
+import com.process.dto.TaskInboxQuery;
+import com.process.vo.TaskVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 待办任务投影查询
+ * <p>
+ * 直接读取 ACT_RU_TASK 中 TaskVO 需要的列，按 (CREATE_TIME_, ID_) 倒序做键集分页，
+ * 翻到任意深度都只扫描一页数据。建议为 ACT_RU_TASK 建立 (ASSIGNEE_, CREATE_TIME_, ID_) 索引。
+ */
+@Mapper
+public interface TaskInboxMapper {
+
+    @Select("<script>"
+            + "SELECT T.ID_ AS id, T.NAME_ AS name, T.DESCRIPTION_ AS description,"
+            + " T.PROC_INST_ID_ AS processInstanceId, T.PROC_DEF_ID_ AS processDefinitionId,"
+            + " T.ASSIGNEE_ AS assignee, T.CREATE_TIME_ AS createTime, T.DUE_DATE_ AS dueDate,"
+            + " T.PRIORITY_ AS priority, T.TASK_DEF_KEY_ AS taskDefinitionKey"
+            + " FROM ACT_RU_TASK T"
+            + "<if test='query.processDefinitionKey != null'>"
+            + " INNER JOIN ACT_RE_PROCDEF D ON D.ID_ = T.PROC_DEF_ID_ AND D.KEY_ = #{query.processDefinitionKey}"
+            + "</if>"
+            + " WHERE T.ASSIGNEE_ = #{query.userId}"
+            + "<if test='query.taskDefinitionKey != null'> AND T.TASK_DEF_KEY_ = #{query.taskDefinitionKey}</if>"
+            + "<if test='query.dueAfter != null'> AND T.DUE_DATE_ &gt;= #{query.dueAfter}</if>"
+            + "<if test='query.dueBefore != null'> AND T.DUE_DATE_ &lt;= #{query.dueBefore}</if>"
+            + "<if test='afterCreateTime != null'>"
+            + " AND (T.CREATE_TIME_ &lt; #{afterCreateTime} OR (T.CREATE_TIME_ = #{afterCreateTime} AND T.ID_ &lt; #{afterId}))"
+            + "</if>"
+            + " ORDER BY T.CREATE_TIME_ DESC, T.ID_ DESC"
+            + " LIMIT #{limit}"
+            + "</script>")
+    List<TaskVO> selectInboxPage(@Param("query") TaskInboxQuery query,
+                                 @Param("afterCreateTime") Date afterCreateTime,
+                                 @Param("afterId") String afterId,
+                                 @Param("limit") int limit);
+}
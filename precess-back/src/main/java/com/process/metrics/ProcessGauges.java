@@ -0,0 +1,173 @@
+package com.process.metrics;
+
+import com.process.mapper.OutboxMapper;
+import com.process.outbox.OutboxMessage;
+import com.process.service.ProcessStartQueueService;
+import com.process.shard.EngineShard;
+import com.process.shard.EngineShardRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.flowable.common.engine.api.async.AsyncTaskExecutor;
+import org.flowable.common.engine.impl.async.DefaultAsyncTaskExecutor;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.ProcessEngineConfiguration;
+import org.flowable.job.service.impl.asyncexecutor.AsyncExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 流程引擎状态指标
+ * <p>
+ * 需要查库的指标（各流程定义的待办数、待执行的异步作业数、发件箱积压）由后台线程定时刷新，
+ * 抓取指标时只读取内存中的值，不会给数据库带来额外压力。
+ */
+@Component
+public class ProcessGauges {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessGauges.class);
+
+    private static final String OPEN_TASKS_SQL = "SELECT D.KEY_, COUNT(*) FROM ACT_RU_TASK T"
+            + " INNER JOIN ACT_RE_PROCDEF D ON D.ID_ = T.PROC_DEF_ID_ GROUP BY D.KEY_";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProcessMetrics processMetrics;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private ProcessEngineConfiguration processEngineConfiguration;
+
+    @Autowired
+    private ProcessStartQueueService processStartQueueService;
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    @Value("${process.metrics.refresh-interval:30}")
+    private long refreshInterval;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private MultiGauge openTasks;
+
+    private final AtomicLong pendingJobs = new AtomicLong();
+
+    private final AtomicLong pendingOutbox = new AtomicLong();
+
+    private final AtomicLong failedOutbox = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        openTasks = MultiGauge.builder("process.tasks.open")
+                .description("各流程定义的待办任务数")
+                .register(meterRegistry);
+
+        Gauge.builder("flowable.async.jobs.pending", pendingJobs, AtomicLong::get)
+                .description("等待执行的异步作业数")
+                .register(meterRegistry);
+        Gauge.builder("flowable.async.executor.queue.size", this, ProcessGauges::asyncExecutorQueueSize)
+                .description("异步执行器线程池队列中的作业数")
+                .register(meterRegistry);
+        Gauge.builder("flowable.async.executor.queue.remaining", this, ProcessGauges::asyncExecutorRemainingCapacity)
+                .description("异步执行器线程池队列剩余容量")
+                .register(meterRegistry);
+        Gauge.builder("process.outbox.pending", pendingOutbox, AtomicLong::get)
+                .description("发件箱中待投递的消息数")
+                .register(meterRegistry);
+        Gauge.builder("process.outbox.failed", failedOutbox, AtomicLong::get)
+                .description("发件箱中重试耗尽的消息数")
+                .register(meterRegistry);
+        Gauge.builder("process.start.queue.size", processStartQueueService, ProcessStartQueueService::getQueueSize)
+                .description("异步启动队列中等待的请求数")
+                .register(meterRegistry);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "process-gauges");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void refresh() {
+        try {
+            Map<String, Long> counts = new HashMap<>();
+            jdbcTemplate.query(OPEN_TASKS_SQL, rs -> {
+                counts.merge(processMetrics.keyTag(rs.getString(1)), rs.getLong(2), Long::sum);
+            });
+            List<MultiGauge.Row<?>> rows = counts.entrySet().stream()
+                    .map(entry -> MultiGauge.Row.of(Tags.of("processDefinitionKey", entry.getKey()), entry.getValue()))
+                    .collect(Collectors.toList());
+            openTasks.register(rows, true);
+
+            pendingJobs.set(managementService.createJobQuery().count());
+            // 发件箱按分片存放，积压取所有分片之和
+            long pending = 0;
+            long failed = 0;
+            for (EngineShard shard : engineShards.getShards()) {
+                OutboxMapper outboxMapper = shard.getMapper(OutboxMapper.class);
+                pending += outboxMapper.countByStatus(OutboxMessage.PENDING);
+                failed += outboxMapper.countByStatus(OutboxMessage.FAILED);
+            }
+            pendingOutbox.set(pending);
+            failedOutbox.set(failed);
+        } catch (Exception e) {
+            log.warn("刷新流程引擎指标失败: {}", e.getMessage());
+        }
+    }
+
+    private double asyncExecutorQueueSize() {
+        AsyncTaskExecutor taskExecutor = asyncTaskExecutor();
+        if (taskExecutor instanceof DefaultAsyncTaskExecutor
+                && ((DefaultAsyncTaskExecutor) taskExecutor).getThreadPoolQueue() != null) {
+            return ((DefaultAsyncTaskExecutor) taskExecutor).getThreadPoolQueue().size();
+        }
+        return 0;
+    }
+
+    private double asyncExecutorRemainingCapacity() {
+        AsyncTaskExecutor taskExecutor = asyncTaskExecutor();
+        return taskExecutor != null ? taskExecutor.getRemainingCapacity() : 0;
+    }
+
+    private AsyncTaskExecutor asyncTaskExecutor() {
+        AsyncExecutor asyncExecutor = processEngineConfiguration.getAsyncExecutor();
+        return asyncExecutor != null && asyncExecutor.isActive() ? asyncExecutor.getTaskExecutor() : null;
+    }
+}
@@ -0,0 +1,247 @@
+package com.process.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 流程服务监控指标
+ * <p>
+ * 所有指标都带 processDefinitionKey 标签。为保证标签基数有界，最多记录
+ * process.metrics.max-definition-keys 个不同的 Key，超出部分统一记为 other；无法确定时记为 none。
+ * 标签值取自引擎返回的流程定义或已部署的流程定义，请求中传入的 Key 需先确认已部署，避免无效 Key 占满标签取值。
+ */
+@Component
+public class ProcessMetrics {
+
+    public static final String NONE = "none";
+
+    public static final String OTHER = "other";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${process.metrics.max-definition-keys:100}")
+    private int maxDefinitionKeys;
+
+    private final Set<String> knownKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 记录服务方法耗时
+     */
+    public <T> T time(String operation, String processDefinitionKey, Supplier<T> action) {
+        return time(operation, result -> processDefinitionKey, action);
+    }
+
+    /**
+     * 记录服务方法耗时，processDefinitionKey 从返回结果中解析（失败时记为 none）
+     */
+    public <T> T time(String operation, Function<T, String> keyResolver, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        T result = null;
+        String outcome = "error";
+        try {
+            result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            String key = result != null ? keyResolver.apply(result) : null;
+            sample.stop(serviceTimer(operation, key, outcome));
+        }
+    }
+
+    /**
+     * 记录无返回值的服务方法耗时
+     */
+    public void time(String operation, String processDefinitionKey, Runnable action) {
+        time(operation, processDefinitionKey, () -> {
+            action.run();
+            return Boolean.TRUE;
+        });
+    }
+
+    /**
+     * 记录流程委托执行耗时
+     */
+    public void timeDelegate(String delegate, String processDefinitionId, Runnable action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            action.run();
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("process.delegate.execution")
+                    .description("流程委托执行耗时")
+                    .tag("delegate", delegate)
+                    .tag("processDefinitionKey", keyTag(keyOfDefinitionId(processDefinitionId)))
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 流程实例启动计数
+     */
+    public void processStarted(String processDefinitionId) {
+        counter("process.instances.started", "流程实例启动数", processDefinitionId).increment();
+    }
+
+    /**
+     * 流程实例结束计数
+     */
+    public void processCompleted(String processDefinitionId) {
+        counter("process.instances.completed", "流程实例结束数", processDefinitionId).increment();
+    }
+
+    /**
+     * 任务完成计数
+     */
+    public void taskCompleted(String processDefinitionId) {
+        counter("process.tasks.completed", "任务完成数", processDefinitionId).increment();
+    }
+
+    /**
+     * 审批结果计数
+     */
+    public void approvalFinished(String processDefinitionId, String result) {
+        Counter.builder("process.approvals")
+                .description("审批结果数")
+                .tag("processDefinitionKey", keyTag(keyOfDefinitionId(processDefinitionId)))
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 包装交给作业线程池的任务，记录排队等待时间和执行时间
+     */
+    public Runnable timeJob(Runnable job) {
+        long queuedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            Timer.builder("flowable.job.queue.wait")
+                    .description("作业在线程池队列中的等待时间")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+            try {
+                job.run();
+            } finally {
+                Timer.builder("flowable.job.run")
+                        .description("作业线程执行时间")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * 记录作业从创建到执行结束的延迟
+     */
+    public void jobExecuted(String jobHandlerType, Date createTime, String outcome) {
+        if (createTime == null) {
+            return;
+        }
+        Timer.builder("flowable.job.latency")
+                .description("异步作业从创建到执行结束的延迟")
+                .tag("type", jobHandlerType != null ? jobHandlerType : NONE)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Math.max(System.currentTimeMillis() - createTime.getTime(), 0), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 发件箱消息投递计数
+     */
+    public void outboxDelivered(String topic, String outcome) {
+        Counter.builder("process.outbox.delivered")
+                .description("发件箱消息投递次数")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 幂等键请求计数，outcome 为 executed、replayed、conflict
+     */
+    public void idempotentRequest(String scope, String outcome) {
+        Counter.builder("process.idempotency.requests")
+                .description("带幂等键的请求数")
+                .tag("scope", scope)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 限流拒绝计数，limit 为 bulkhead、client、definition
+     */
+    public void requestRejected(String limit, String name) {
+        Counter.builder("process.requests.rejected")
+                .description("被限流拒绝的请求数")
+                .tag("limit", limit)
+                .tag("name", name)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 将流程定义 Key 转换为有界的标签值
+     */
+    public String keyTag(String processDefinitionKey) {
+        if (processDefinitionKey == null || processDefinitionKey.isEmpty()) {
+            return NONE;
+        }
+        if (knownKeys.contains(processDefinitionKey)) {
+            return processDefinitionKey;
+        }
+        synchronized (knownKeys) {
+            if (knownKeys.size() < maxDefinitionKeys) {
+                knownKeys.add(processDefinitionKey);
+                return processDefinitionKey;
+            }
+        }
+        return knownKeys.contains(processDefinitionKey) ? processDefinitionKey : OTHER;
+    }
+
+    /**
+     * 从流程定义 ID（key:version:id）中解析 Key
+     */
+    public static String keyOfDefinitionId(String processDefinitionId) {
+        if (processDefinitionId == null) {
+            return null;
+        }
+        int separator = processDefinitionId.indexOf(':');
+        return separator > 0 ? processDefinitionId.substring(0, separator) : null;
+    }
+
+    private Timer serviceTimer(String operation, String processDefinitionKey, String outcome) {
+        return Timer.builder("process.service")
+                .description("流程服务方法耗时")
+                .tag("operation", operation)
+                .tag("processDefinitionKey", keyTag(processDefinitionKey))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter counter(String name, String description, String processDefinitionId) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("processDefinitionKey", keyTag(keyOfDefinitionId(processDefinitionId)))
+                .register(meterRegistry);
+    }
+}
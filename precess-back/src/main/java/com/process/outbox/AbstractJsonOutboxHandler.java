@@ -0,0 +1,26 @@
+package com.process.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 将 JSON 消息内容反序列化为指定类型的处理器基类
+ */
+public abstract class AbstractJsonOutboxHandler<T> implements OutboxHandler {
+
+    private final Class<T> payloadType;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    protected AbstractJsonOutboxHandler(Class<T> payloadType) {
+        this.payloadType = payloadType;
+    }
+
+    @Override
+    public void handle(String messageKey, String payload) throws Exception {
+        handle(messageKey, objectMapper.readValue(payload, payloadType));
+    }
+
+    protected abstract void handle(String messageKey, T payload) throws Exception;
+}
@@ -0,0 +1,238 @@
+package com.process.outbox;
+
+import com.process.mapper.OutboxMapper;
+import com.process.metrics.ProcessMetrics;
+import com.process.shard.EngineShard;
+import com.process.shard.EngineShardRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 发件箱投递器
+ * <p>
+ * 单线程按批次认领到期消息，交给固定大小的投递线程池并行处理（并行度即线程数），整批处理完后
+ * 成功的消息一次性标记为 DONE；失败的消息按指数退避重新排期，超过最大次数后置为 FAILED 等待人工处理。
+ * 除定时轮询外，入队事务提交后会立即唤醒一次投递。启用分片时依次处理每个分片库中的发件箱，一个分片出错不影响其他分片。
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final long MAINTENANCE_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    @Autowired
+    private List<OutboxHandler> outboxHandlers;
+
+    @Autowired
+    private ProcessMetrics processMetrics;
+
+    @Value("${process.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${process.outbox.parallelism:4}")
+    private int parallelism;
+
+    @Value("${process.outbox.poll-interval:1000}")
+    private long pollInterval;
+
+    @Value("${process.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${process.outbox.retry-backoff:1000}")
+    private long retryBackoff;
+
+    @Value("${process.outbox.max-backoff:300000}")
+    private long maxBackoff;
+
+    @Value("${process.outbox.lock-timeout:300000}")
+    private long lockTimeout;
+
+    @Value("${process.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final Map<String, OutboxHandler> handlers = new HashMap<>();
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private ScheduledExecutorService poller;
+
+    private ExecutorService workers;
+
+    private volatile boolean running;
+
+    private long lastMaintenance;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (OutboxHandler handler : outboxHandlers) {
+            OutboxHandler previous = handlers.put(handler.getTopic(), handler);
+            if (previous != null) {
+                throw new IllegalStateException("发件箱主题 " + handler.getTopic() + " 存在多个处理器");
+            }
+        }
+
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "outbox-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        poller.scheduleWithFixedDelay(this::dispatch, 0, pollInterval, TimeUnit.MILLISECONDS);
+        log.info("发件箱投递器已启动 - 节点: {}, 主题: {}, 批次大小: {}, 并行度: {}", owner, handlers.keySet(), batchSize, parallelism);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (poller != null) {
+            poller.shutdownNow();
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 唤醒投递（合并多次唤醒，同一时间最多排队一次）
+     */
+    public void wakeUp() {
+        if (running && wakeUpPending.compareAndSet(false, true)) {
+            poller.execute(this::dispatch);
+        }
+    }
+
+    private void dispatch() {
+        wakeUpPending.set(false);
+        boolean maintenance = maintenanceDue();
+        for (EngineShard shard : engineShards.getShards()) {
+            OutboxMapper outboxMapper = shard.getMapper(OutboxMapper.class);
+            try {
+                if (maintenance) {
+                    maintain(outboxMapper);
+                }
+                int claimed;
+                do {
+                    claimed = dispatchBatch(outboxMapper);
+                } while (running && claimed == batchSize);
+            } catch (Exception e) {
+                log.warn("发件箱投递出错 - 分片: {}, 原因: {}", shard.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private int dispatchBatch(OutboxMapper outboxMapper) {
+        Date now = new Date();
+        List<Long> ids = outboxMapper.selectDueIds(now, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        outboxMapper.claim(ids, owner, now);
+        List<OutboxMessage> messages = outboxMapper.selectClaimed(ids, owner);
+
+        List<CompletableFuture<Long>> futures = messages.stream()
+                .map(message -> CompletableFuture.supplyAsync(() -> deliver(outboxMapper, message) ? message.getId() : null, workers))
+                .collect(Collectors.toList());
+        List<Long> delivered = futures.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (!delivered.isEmpty()) {
+            outboxMapper.markDone(delivered, owner, new Date());
+        }
+        return ids.size();
+    }
+
+    private boolean deliver(OutboxMapper outboxMapper, OutboxMessage message) {
+        OutboxHandler handler = handlers.get(message.getTopic());
+        try {
+            if (handler == null) {
+                throw new IllegalStateException("没有处理主题 " + message.getTopic() + " 的 OutboxHandler");
+            }
+            handler.handle(message.getMessageKey(), message.getPayload());
+            processMetrics.outboxDelivered(message.getTopic(), "success");
+            return true;
+        } catch (Exception e) {
+            processMetrics.outboxDelivered(message.getTopic(), "error");
+            reschedule(outboxMapper, message, e);
+            return false;
+        }
+    }
+
+    private void reschedule(OutboxMapper outboxMapper, OutboxMessage message, Exception e) {
+        int attempts = message.getAttempts() + 1;
+        boolean exhausted = attempts >= maxAttempts;
+        long delay = Math.min(retryBackoff << Math.min(attempts - 1, 20), maxBackoff);
+        Date now = new Date();
+        outboxMapper.markFailed(message.getId(), owner, exhausted ? OutboxMessage.FAILED : OutboxMessage.PENDING,
+                attempts, new Date(now.getTime() + delay), StringUtils.abbreviate(e.toString(), 1000), now);
+        if (exhausted) {
+            log.error("发件箱消息投递失败且已达最大重试次数 - 幂等键: {}, 次数: {}", message.getMessageKey(), attempts, e);
+        } else {
+            log.warn("发件箱消息投递失败，{}ms 后重试 - 幂等键: {}, 次数: {}, 原因: {}",
+                    delay, message.getMessageKey(), attempts, e.getMessage());
+        }
+    }
+
+    private boolean maintenanceDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastMaintenance < MAINTENANCE_INTERVAL) {
+            return false;
+        }
+        lastMaintenance = now;
+        return true;
+    }
+
+    /**
+     * 定期放回锁定超时的消息，并清理保留期之外的已投递消息
+     */
+    private void maintain(OutboxMapper outboxMapper) {
+        long now = System.currentTimeMillis();
+        int released = outboxMapper.releaseExpired(new Date(now - lockTimeout), new Date(now));
+        if (released > 0) {
+            log.warn("发件箱有 {} 条消息锁定超时，已放回待投递", released);
+        }
+
+        Date before = new Date(now - TimeUnit.DAYS.toMillis(retentionDays));
+        List<Long> ids;
+        do {
+            ids = outboxMapper.selectDoneBefore(before, batchSize);
+            if (!ids.isEmpty()) {
+                outboxMapper.deleteByIds(ids);
+            }
+        } while (running && ids.size() == batchSize);
+    }
+}
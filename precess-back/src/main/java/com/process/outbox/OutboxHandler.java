@@ -0,0 +1,23 @@
+package com.process.outbox;
+
+/**
+ * 发件箱消息处理器
+ * <p>
+ * 每个处理器负责一个主题，注册为 Spring Bean 即可被 OutboxDispatcher 发现。
+ * 投递语义为至少一次：处理器抛出异常时消息按退避策略重试，外部系统应按 messageKey 去重。
+ */
+public interface OutboxHandler {
+
+    /**
+     * 处理的消息主题
+     */
+    String getTopic();
+
+    /**
+     * 处理一条消息
+     *
+     * @param messageKey 幂等键
+     * @param payload    消息内容（JSON）
+     */
+    void handle(String messageKey, String payload) throws Exception;
+}
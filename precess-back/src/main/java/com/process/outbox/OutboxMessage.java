@@ -0,0 +1,62 @@
+package com.process.outbox;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 发件箱消息
+ */
+@Data
+public class OutboxMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PENDING = "PENDING";
+
+    public static final String PROCESSING = "PROCESSING";
+
+    public static final String DONE = "DONE";
+
+    public static final String FAILED = "FAILED";
+
+    private Long id;
+
+    /**
+     * 幂等键，同一个键只会入队一次，投递时传给处理器用于下游去重
+     */
+    private String messageKey;
+
+    /**
+     * 消息主题，决定由哪个 OutboxHandler 处理
+     */
+    private String topic;
+
+    /**
+     * 消息内容（JSON）
+     */
+    private String payload;
+
+    private String status;
+
+    /**
+     * 已尝试投递次数
+     */
+    private Integer attempts;
+
+    /**
+     * 下次可投递时间
+     */
+    private Date nextAttemptTime;
+
+    private String lockOwner;
+
+    private Date lockTime;
+
+    private String lastError;
+
+    private Date createTime;
+
+    private Date updateTime;
+}
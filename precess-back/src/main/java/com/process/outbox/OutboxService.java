@@ -0,0 +1,85 @@
+package com.process.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.process.mapper.OutboxMapper;
+import com.process.shard.EngineShardRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+
+/**
+ * 发件箱入队服务
+ * <p>
+ * 消息必须在调用方的事务中写入（流程委托中即为引擎事务），与流程状态一起提交或回滚；
+ * 启用分片时写入当前引擎所在分片库中的发件箱，加入该分片的事务。
+ * 事务提交后唤醒 OutboxDispatcher 立即投递，不必等下一轮轮询。
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 写入一条消息
+     *
+     * @param topic      消息主题
+     * @param messageKey 幂等键，已存在时不再重复写入
+     * @param payload    消息内容，序列化为 JSON
+     * @return 是否写入了新消息
+     */
+    public boolean enqueue(String topic, String messageKey, Object payload) {
+        // 各分片的事务管理器不同，不能用 @Transactional(propagation = MANDATORY)（只对应默认库的事务管理器）
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalTransactionStateException("发件箱消息必须在调用方的事务中写入");
+        }
+        OutboxMapper outboxMapper = engineShards.current().getMapper(OutboxMapper.class);
+        if (outboxMapper.countByKey(messageKey) > 0) {
+            log.debug("发件箱消息已存在，跳过 - 幂等键: {}", messageKey);
+            return false;
+        }
+
+        Date now = new Date();
+        OutboxMessage message = new OutboxMessage();
+        message.setMessageKey(messageKey);
+        message.setTopic(topic);
+        message.setPayload(toJson(payload));
+        message.setStatus(OutboxMessage.PENDING);
+        message.setAttempts(0);
+        message.setNextAttemptTime(now);
+        message.setCreateTime(now);
+        message.setUpdateTime(now);
+        outboxMapper.insert(message);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wakeUp();
+            }
+        });
+        return true;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("发件箱消息序列化失败: " + e.getMessage(), e);
+        }
+    }
+}
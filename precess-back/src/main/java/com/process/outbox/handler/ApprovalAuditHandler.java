@@ -0,0 +1,34 @@
+package com.process.outbox.handler;
+
+import com.process.dto.ApprovalResultMessage;
+import com.process.outbox.AbstractJsonOutboxHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 审批日志记录
+ */
+@Component
+public class ApprovalAuditHandler extends AbstractJsonOutboxHandler<ApprovalResultMessage> {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovalAuditHandler.class);
+
+    public static final String TOPIC = "approval.audit";
+
+    public ApprovalAuditHandler() {
+        super(ApprovalResultMessage.class);
+    }
+
+    @Override
+    public String getTopic() {
+        return TOPIC;
+    }
+
+    @Override
+    protected void handle(String messageKey, ApprovalResultMessage message) {
+        // 在这里写入审计系统，messageKey 作为审计记录的唯一标识
+        log.info("记录审批日志 - 流程实例ID: {}, 审批结果: {}, 完成时间: {}",
+                message.getProcessInstanceId(), message.getResult(), message.getFinishTime());
+    }
+}
@@ -0,0 +1,34 @@
+package com.process.outbox.handler;
+
+import com.process.dto.ApprovalResultMessage;
+import com.process.outbox.AbstractJsonOutboxHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 审批结果通知申请人
+ */
+@Component
+public class ApprovalNotificationHandler extends AbstractJsonOutboxHandler<ApprovalResultMessage> {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovalNotificationHandler.class);
+
+    public static final String TOPIC = "approval.notification";
+
+    public ApprovalNotificationHandler() {
+        super(ApprovalResultMessage.class);
+    }
+
+    @Override
+    public String getTopic() {
+        return TOPIC;
+    }
+
+    @Override
+    protected void handle(String messageKey, ApprovalResultMessage message) {
+        // 在这里调用消息/邮件服务，将 messageKey 作为请求去重 ID 传给下游
+        log.info("发送审批结果通知 - 申请人: {}, 业务Key: {}, 审批结果: {}",
+                message.getStartUserId(), message.getBusinessKey(), message.getResult());
+    }
+}
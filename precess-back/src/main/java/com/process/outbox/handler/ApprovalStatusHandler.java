@@ -0,0 +1,34 @@
+package com.process.outbox.handler;
+
+import com.process.dto.ApprovalResultMessage;
+import com.process.outbox.AbstractJsonOutboxHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 审批结果回写业务表
+ */
+@Component
+public class ApprovalStatusHandler extends AbstractJsonOutboxHandler<ApprovalResultMessage> {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovalStatusHandler.class);
+
+    public static final String TOPIC = "approval.status";
+
+    public ApprovalStatusHandler() {
+        super(ApprovalResultMessage.class);
+    }
+
+    @Override
+    public String getTopic() {
+        return TOPIC;
+    }
+
+    @Override
+    protected void handle(String messageKey, ApprovalResultMessage message) {
+        // 在这里按 businessKey 更新业务表状态，使用 messageKey 做幂等（如作为唯一约束或乐观锁条件）
+        log.info("更新业务状态 - 业务Key: {}, 审批结果: {}, 幂等键: {}",
+                message.getBusinessKey(), message.getResult(), messageKey);
+    }
+}
@@ -0,0 +1,64 @@
+package com.process.ratelimit;
+
+import com.process.config.RateLimitProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 运行中查看和调整限流：GET/POST /actuator/ratelimits
+ * <p>
+ * type 为 bulkhead 时按 name 调整并发上限（maxConcurrent 为空表示不限制）；
+ * type 为 client 时调整客户端速率；type 为 definition 时调整 name 对应流程定义的速率，不带 name 时调整默认值；
+ * type 为 enabled 时按 enabled 开关限流。调整只作用于本节点，重启后恢复为配置文件中的值。
+ */
+@Component
+@Endpoint(id = "ratelimits")
+public class RateLimitEndpoint {
+
+    @Autowired
+    private RequestLimiter limiter;
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        return limiter.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(String type, @Nullable String name, @Nullable Integer maxConcurrent,
+                                      @Nullable Double permitsPerSecond, @Nullable Integer burst,
+                                      @Nullable Boolean enabled) {
+        switch (type) {
+            case "bulkhead":
+                if (name == null) {
+                    throw new IllegalArgumentException("调整隔离舱时 name 不能为空");
+                }
+                limiter.setBulkheadLimit(name, maxConcurrent);
+                break;
+            case "client":
+                limiter.setClientLimit(limit(permitsPerSecond, burst));
+                break;
+            case "definition":
+                limiter.setDefinitionLimit(name, limit(permitsPerSecond, burst));
+                break;
+            case "enabled":
+                limiter.setEnabled(!Boolean.FALSE.equals(enabled));
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的类型: " + type);
+        }
+        return limiter.snapshot();
+    }
+
+    private static RateLimitProperties.Limit limit(Double permitsPerSecond, Integer burst) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setPermitsPerSecond(permitsPerSecond != null ? permitsPerSecond : 0);
+        limit.setBurst(burst != null ? burst : 0);
+        return limit;
+    }
+}
@@ -0,0 +1,123 @@
+package com.process.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.process.common.Result;
+import com.process.config.RateLimitProperties;
+import com.process.metrics.ProcessMetrics;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口限流
+ * <p>
+ * 依次检查客户端令牌桶、路径中流程定义（processDefinitionKey 或 processDefinitionId）的令牌桶，
+ * 以及 {@link RateLimited} 标记的隔离舱，任一不满足时直接返回 429 和 Retry-After，不进入控制器。
+ * 隔离舱在请求结束（包括异步请求结束）时释放。请求体中的流程定义 Key 由控制器自行检查。
+ */
+@Component
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String BULKHEAD_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".bulkhead";
+
+    @Autowired
+    private RequestLimiter limiter;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        // 预检请求不执行控制器，不占用令牌和隔离舱
+        if (!limiter.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC
+                || CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        long wait = limiter.tryAcquireClient(clientOf(request));
+        if (wait > 0) {
+            return reject(response, "请求过于频繁，请稍后重试", wait);
+        }
+        String processDefinitionKey = definitionKeyOf(request);
+        wait = limiter.tryAcquireDefinition(processDefinitionKey, 1);
+        if (wait > 0) {
+            return reject(response, "流程 " + processDefinitionKey + " 请求过于频繁，请稍后重试", wait);
+        }
+        RateLimited rateLimited = handler instanceof HandlerMethod
+                ? ((HandlerMethod) handler).getMethodAnnotation(RateLimited.class) : null;
+        if (rateLimited != null) {
+            if (!limiter.tryEnter(rateLimited.value())) {
+                return reject(response, "服务繁忙，请稍后重试", TimeUnit.SECONDS.toNanos(1));
+            }
+            request.setAttribute(BULKHEAD_ATTRIBUTE, rateLimited.value());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object bulkhead = request.getAttribute(BULKHEAD_ATTRIBUTE);
+        if (bulkhead != null) {
+            request.removeAttribute(BULKHEAD_ATTRIBUTE);
+            limiter.exit((String) bulkhead);
+        }
+    }
+
+    /**
+     * 客户端标识：已登录用户按用户名；请求头可由调用方任意设置，只采信可信网关转发的；其余按来源 IP
+     */
+    private String clientOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String remoteAddr = request.getRemoteAddr();
+        if (properties.getTrustedProxies().contains(remoteAddr)) {
+            String clientId = request.getHeader(properties.getClientHeader());
+            if (StringUtils.isNotBlank(clientId)) {
+                return "client:" + clientId;
+            }
+        }
+        return remoteAddr;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String definitionKeyOf(HttpServletRequest request) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            return null;
+        }
+        String key = variables.get("processDefinitionKey");
+        return key != null ? key : ProcessMetrics.keyOfDefinitionId(variables.get("processDefinitionId"));
+    }
+
+    private boolean reject(HttpServletResponse response, String message, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(
+                waitNanos + TimeUnit.SECONDS.toNanos(1) - 1))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Result.error(HttpStatus.TOO_MANY_REQUESTS.value(), message));
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package com.process.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记接口所属的隔离舱，同一隔离舱的接口共用一个并发上限（process.rate-limit.bulkheads）
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    /**
+     * 隔离舱名称
+     */
+    String value();
+}
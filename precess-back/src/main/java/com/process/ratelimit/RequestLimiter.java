@@ -0,0 +1,242 @@
+package com.process.ratelimit;
+
+import com.process.config.RateLimitProperties;
+import com.process.metrics.ProcessMetrics;
+import com.process.service.ProcessDefinitionCacheService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 隔离舱与令牌桶
+ * <p>
+ * 隔离舱按名称限制并发数，进入时超过上限立即拒绝，不排队；令牌桶按客户端、流程定义 Key 限制速率。
+ * 启动时从 process.rate-limit 读取初始值，运行中可以调整，调整速率后对应的令牌桶重新计数。
+ */
+@Component
+public class RequestLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestLimiter.class);
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private ProcessMetrics processMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProcessDefinitionCacheService processDefinitionCacheService;
+
+    private volatile boolean enabled;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private volatile RateLimitProperties.Limit clientLimit;
+
+    private volatile RateLimitProperties.Limit definitionLimit;
+
+    private final Map<String, RateLimitProperties.Limit> definitionLimits = new ConcurrentHashMap<>();
+
+    private Map<String, TokenBucket> clientBuckets;
+
+    private Map<String, TokenBucket> definitionBuckets;
+
+    @PostConstruct
+    public void init() {
+        enabled = properties.isEnabled();
+        properties.getBulkheads().forEach((name, limit) -> bulkhead(name).limit = limit);
+        clientLimit = properties.getClient();
+        definitionLimit = properties.getDefinition();
+        definitionLimits.putAll(properties.getDefinitions());
+        clientBuckets = boundedMap(properties.getMaxTrackedKeys());
+        definitionBuckets = boundedMap(properties.getMaxTrackedKeys());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        log.info("限流已{}", enabled ? "启用" : "关闭");
+    }
+
+    /**
+     * 进入隔离舱，已满时返回 false；进入成功后必须调用 {@link #exit(String)}
+     */
+    public boolean tryEnter(String name) {
+        if (bulkhead(name).tryEnter()) {
+            return true;
+        }
+        processMetrics.requestRejected("bulkhead", name);
+        return false;
+    }
+
+    public void exit(String name) {
+        bulkhead(name).exit();
+    }
+
+    /**
+     * 按客户端取令牌，成功返回 0，否则返回建议等待的纳秒数
+     */
+    public long tryAcquireClient(String clientId) {
+        RateLimitProperties.Limit limit = clientLimit;
+        if (!enabled || limit.isUnlimited()) {
+            return 0;
+        }
+        long wait = acquire(clientBuckets, clientId, limit, 1);
+        if (wait > 0) {
+            processMetrics.requestRejected("client", ProcessMetrics.NONE);
+        }
+        return wait;
+    }
+
+    /**
+     * 按流程定义 Key 取 permits 个令牌，成功返回 0，否则返回建议等待的纳秒数
+     */
+    public long tryAcquireDefinition(String processDefinitionKey, int permits) {
+        if (!enabled || processDefinitionKey == null) {
+            return 0;
+        }
+        RateLimitProperties.Limit limit = definitionLimits.getOrDefault(processDefinitionKey, definitionLimit);
+        if (limit.isUnlimited()) {
+            return 0;
+        }
+        long wait = acquire(definitionBuckets, processDefinitionKey, limit, permits);
+        if (wait > 0) {
+            processMetrics.requestRejected("definition",
+                    processMetrics.keyTag(processDefinitionCacheService.deployedKey(processDefinitionKey)));
+        }
+        return wait;
+    }
+
+    /**
+     * 调整隔离舱并发上限，null 表示不限制；已在隔离舱内的请求不受影响
+     */
+    public void setBulkheadLimit(String name, Integer maxConcurrent) {
+        bulkhead(name).limit = maxConcurrent != null ? maxConcurrent : Integer.MAX_VALUE;
+        log.info("隔离舱并发上限已调整 - 隔离舱: {}, 上限: {}", name, maxConcurrent);
+    }
+
+    public void setClientLimit(RateLimitProperties.Limit limit) {
+        clientLimit = limit;
+        synchronized (clientBuckets) {
+            clientBuckets.clear();
+        }
+        log.info("客户端限流已调整 - 每秒: {}, 突发: {}", limit.getPermitsPerSecond(), limit.getBurst());
+    }
+
+    /**
+     * 调整流程定义限流，processDefinitionKey 为 null 时调整默认值
+     */
+    public void setDefinitionLimit(String processDefinitionKey, RateLimitProperties.Limit limit) {
+        if (processDefinitionKey == null) {
+            definitionLimit = limit;
+        } else {
+            definitionLimits.put(processDefinitionKey, limit);
+        }
+        synchronized (definitionBuckets) {
+            if (processDefinitionKey == null) {
+                definitionBuckets.clear();
+            } else {
+                definitionBuckets.remove(processDefinitionKey);
+            }
+        }
+        log.info("流程定义限流已调整 - 流程: {}, 每秒: {}, 突发: {}",
+                processDefinitionKey != null ? processDefinitionKey : "默认", limit.getPermitsPerSecond(), limit.getBurst());
+    }
+
+    /**
+     * 当前配置与各隔离舱的并发数
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> bulkheadStats = new TreeMap<>();
+        bulkheads.forEach((name, bulkhead) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("maxConcurrent", bulkhead.limit == Integer.MAX_VALUE ? null : bulkhead.limit);
+            stats.put("active", bulkhead.active.get());
+            bulkheadStats.put(name, stats);
+        });
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("bulkheads", bulkheadStats);
+        snapshot.put("client", clientLimit);
+        snapshot.put("definition", definitionLimit);
+        snapshot.put("definitions", new TreeMap<>(definitionLimits));
+        synchronized (clientBuckets) {
+            snapshot.put("trackedClients", clientBuckets.size());
+        }
+        synchronized (definitionBuckets) {
+            snapshot.put("trackedDefinitions", definitionBuckets.size());
+        }
+        return snapshot;
+    }
+
+    private Bulkhead bulkhead(String name) {
+        return bulkheads.computeIfAbsent(name, key -> {
+            Bulkhead bulkhead = new Bulkhead();
+            Gauge.builder("process.bulkhead.active", bulkhead.active, AtomicInteger::get)
+                    .description("隔离舱内正在处理的请求数")
+                    .tag("bulkhead", key)
+                    .register(meterRegistry);
+            return bulkhead;
+        });
+    }
+
+    private static long acquire(Map<String, TokenBucket> buckets, String key, RateLimitProperties.Limit limit,
+                                int permits) {
+        TokenBucket bucket;
+        synchronized (buckets) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit));
+        }
+        return bucket.tryAcquire(permits);
+    }
+
+    private static Map<String, TokenBucket> boundedMap(int maxKeys) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, TokenBucket>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxKeys;
+            }
+        });
+    }
+
+    private static class Bulkhead {
+
+        final AtomicInteger active = new AtomicInteger();
+
+        volatile int limit = Integer.MAX_VALUE;
+
+        boolean tryEnter() {
+            while (true) {
+                int current = active.get();
+                if (current >= limit) {
+                    return false;
+                }
+                if (active.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void exit() {
+            active.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.process.ratelimit;
+
+import com.process.config.RateLimitProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶，取令牌时按经过的时间补充
+ */
+class TokenBucket {
+
+    private final double permitsPerNano;
+
+    private final double capacity;
+
+    private double tokens;
+
+    private long refilledAt;
+
+    TokenBucket(RateLimitProperties.Limit limit) {
+        this.permitsPerNano = limit.getPermitsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = limit.capacity();
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * 取 permits 个令牌（超过容量时按容量计），成功返回 0，否则返回令牌足够还需等待的纳秒数（不扣减令牌）
+     */
+    synchronized long tryAcquire(int permits) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+        double needed = Math.min(permits, capacity);
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) / permitsPerNano);
+    }
+}
@@ -0,0 +1,374 @@
+package com.process.service;
+
+import com.process.shard.EngineShard;
+import com.process.shard.EngineShardRegistry;
+import com.process.vo.DeploymentStageVO;
+import com.process.vo.ProcessDefinitionVO;
+import org.flowable.bpmn.converter.BpmnXMLConverter;
+import org.flowable.bpmn.model.BpmnModel;
+import org.flowable.common.engine.impl.util.io.BytesStreamSource;
+import org.flowable.engine.ProcessEngineConfiguration;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.flowable.engine.repository.Deployment;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.flowable.validation.ProcessValidator;
+import org.flowable.validation.ProcessValidatorFactory;
+import org.flowable.validation.ValidationError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 流程部署流水线
+ * <p>
+ * 上传的 BPMN 先暂存并立即返回暂存 ID，由后台线程依次完成 XML 结构校验、引擎校验（与部署时相同的规则）和部署，
+ * 错误以元素 ID、行号的形式记录在暂存状态中。相同文件名、相同内容（SHA-256）的上传在已有暂存记录尚未结束
+ * （校验中、已通过待部署、部署中）时复用该记录；已结束的记录不复用，回滚到旧内容（A→B→A）时会重新校验、部署。
+ * 部署时开启引擎的重复过滤，内容与最新部署一致时不会产生新版本。
+ * <p>
+ * 每个节点定期检查各分片的最新流程定义，发现新版本（包括其他节点部署的）后预先加载到该分片引擎的流程定义缓存，
+ * 默认分片的新版本同时预渲染流程图，新版本的首次启动不再承担解析开销。暂存记录只保存在接收上传的节点内存中。
+ */
+@Service
+public class DeploymentPipelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeploymentPipelineService.class);
+
+    @Autowired
+    private ProcessService processService;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private ProcessEngineConfiguration processEngineConfiguration;
+
+    @Autowired
+    private ProcessDefinitionCacheService processDefinitionCacheService;
+
+    @Autowired
+    private ProcessDiagramService processDiagramService;
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    /**
+     * 保留的暂存记录数
+     */
+    @Value("${process.deployment.staging-capacity:100}")
+    private int stagingCapacity;
+
+    @Value("${process.definition-cache.check-interval:5000}")
+    private long checkInterval;
+
+    private Map<String, Staged> stages;
+
+    /**
+     * 已预热的流程定义，键为“分片名:流程定义ID”（各分片库的 ID 相互独立）
+     */
+    private final Set<String> warmedDefinitionIds = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService pipeline;
+
+    private ScheduledExecutorService watcher;
+
+    @PostConstruct
+    public void init() {
+        stages = Collections.synchronizedMap(new LinkedHashMap<String, Staged>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Staged> eldest) {
+                return size() > stagingCapacity;
+            }
+        });
+        pipeline = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "deployment-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWatcher() {
+        // 启动时自动部署的流程定义已在各分片引擎的缓存中，只记录不再预热
+        for (EngineShard shard : engineShards.getShards()) {
+            latestDefinitionIds(shard).forEach(id -> warmedDefinitionIds.add(warmedKey(shard, id)));
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "definition-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::warmUpNewDefinitions, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        pipeline.shutdownNow();
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * 暂存上传的资源并开始后台校验
+     *
+     * @param autoDeploy 校验通过后是否自动部署，否则需调用 {@link #deploy(String)}
+     */
+    public DeploymentStageVO stage(String resourceName, byte[] content, boolean autoDeploy) {
+        String hash = sha256(content);
+        DeploymentStageVO status = new DeploymentStageVO();
+        status.setStagingId(UUID.randomUUID().toString().replace("-", ""));
+        status.setResourceName(resourceName);
+        status.setContentHash(hash);
+        status.setStatus(DeploymentStageVO.VALIDATING);
+        status.setAutoDeploy(autoDeploy);
+        status.setCreateTime(new Date());
+        Staged staged = new Staged(content, status);
+
+        // 查重和放入在同一把锁内完成，同时到达的相同上传只会产生一条暂存记录
+        synchronized (stages) {
+            for (Staged existing : stages.values()) {
+                if (existing.matches(resourceName, hash)) {
+                    log.info("重复上传，复用暂存记录 - 资源: {}, 暂存ID: {}", resourceName, existing.status.getStagingId());
+                    return existing.snapshot();
+                }
+            }
+            stages.put(status.getStagingId(), staged);
+        }
+        pipeline.execute(() -> process(staged));
+        return staged.snapshot();
+    }
+
+    /**
+     * 部署已校验通过的暂存资源
+     *
+     * @return 暂存记录不存在时返回 null
+     */
+    public DeploymentStageVO deploy(String stagingId) {
+        Staged staged = stages.get(stagingId);
+        if (staged == null) {
+            return null;
+        }
+        synchronized (staged) {
+            if (!DeploymentStageVO.VALID.equals(staged.status.getStatus())) {
+                throw new IllegalStateException("当前状态不能部署: " + staged.status.getStatus());
+            }
+            staged.status.setStatus(DeploymentStageVO.DEPLOYING);
+        }
+        pipeline.execute(() -> doDeploy(staged));
+        return staged.snapshot();
+    }
+
+    /**
+     * 查询暂存状态，不存在时返回 null
+     */
+    public DeploymentStageVO getStatus(String stagingId) {
+        Staged staged = stages.get(stagingId);
+        return staged != null ? staged.snapshot() : null;
+    }
+
+    private void process(Staged staged) {
+        validate(staged);
+        boolean deploy;
+        synchronized (staged) {
+            deploy = DeploymentStageVO.VALID.equals(staged.status.getStatus())
+                    && Boolean.TRUE.equals(staged.status.getAutoDeploy());
+            if (deploy) {
+                staged.status.setStatus(DeploymentStageVO.DEPLOYING);
+            }
+        }
+        if (deploy) {
+            doDeploy(staged);
+        }
+    }
+
+    private void validate(Staged staged) {
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        try {
+            BpmnModel bpmnModel = new BpmnXMLConverter()
+                    .convertToBpmnModel(new BytesStreamSource(staged.content), true, false, "UTF-8");
+            for (ValidationError error : processValidator().validate(bpmnModel)) {
+                String message = describe(error);
+                if (error.isWarning()) {
+                    warnings.add(message);
+                } else {
+                    errors.add(message);
+                }
+            }
+        } catch (Exception e) {
+            errors.add(e.getMessage());
+        }
+        synchronized (staged) {
+            staged.status.setErrors(errors);
+            staged.status.setWarnings(warnings);
+            staged.status.setStatus(errors.isEmpty() ? DeploymentStageVO.VALID : DeploymentStageVO.INVALID);
+            if (!errors.isEmpty()) {
+                staged.status.setFinishTime(new Date());
+            }
+        }
+        log.info("流程资源校验完成 - 资源: {}, 错误: {}, 警告: {}", staged.status.getResourceName(), errors.size(), warnings.size());
+    }
+
+    private void doDeploy(Staged staged) {
+        String resourceName = staged.status.getResourceName();
+        try {
+            Deployment latest = repositoryService.createDeploymentQuery()
+                    .deploymentName(resourceName)
+                    .orderByDeploymentTime()
+                    .desc()
+                    .listPage(0, 1)
+                    .stream()
+                    .findFirst()
+                    .orElse(null);
+            String deploymentId = processService.deployProcess(resourceName, new ByteArrayInputStream(staged.content));
+            // 部署节点上解析结果已在引擎缓存中
+            repositoryService.createProcessDefinitionQuery().deploymentId(deploymentId).list()
+                    .forEach(definition -> warmedDefinitionIds.add(warmedKey(engineShards.getDefault(), definition.getId())));
+            synchronized (staged) {
+                staged.status.setDeploymentId(deploymentId);
+                staged.status.setDuplicate(latest != null && latest.getId().equals(deploymentId));
+                staged.status.setStatus(DeploymentStageVO.DEPLOYED);
+                staged.status.setFinishTime(new Date());
+            }
+            log.info("流程部署完成 - 资源: {}, 部署ID: {}, 重复: {}", resourceName, deploymentId, staged.status.getDuplicate());
+        } catch (Exception e) {
+            synchronized (staged) {
+                staged.status.getErrors().add(e.getMessage());
+                staged.status.setStatus(DeploymentStageVO.FAILED);
+                staged.status.setFinishTime(new Date());
+            }
+            log.warn("流程部署失败 - 资源: {}, 原因: {}", resourceName, e.getMessage());
+        }
+    }
+
+    /**
+     * 发现新的最新版本流程定义时，加载到所在分片的引擎缓存；默认分片的同时预渲染流程图（流程图缓存只覆盖默认分片）
+     */
+    private void warmUpNewDefinitions() {
+        for (EngineShard shard : engineShards.getShards()) {
+            try {
+                for (String definitionId : latestDefinitionIds(shard)) {
+                    if (!warmedDefinitionIds.add(warmedKey(shard, definitionId))) {
+                        continue;
+                    }
+                    long start = System.currentTimeMillis();
+                    shard.getRepositoryService().getBpmnModel(definitionId);
+                    if (shard.isDefault()) {
+                        processDiagramService.getDiagram(definitionId);
+                    }
+                    log.info("预热新版本流程定义 - 分片: {}, ID: {}, 耗时: {}ms",
+                            shard.getName(), definitionId, System.currentTimeMillis() - start);
+                }
+            } catch (Exception e) {
+                log.warn("预热流程定义失败 - 分片: {}, 原因: {}", shard.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 分片中最新版本流程定义的 ID，默认分片读取流程定义缓存
+     */
+    private List<String> latestDefinitionIds(EngineShard shard) {
+        if (shard.isDefault()) {
+            return processDefinitionCacheService.listLatest().stream()
+                    .map(ProcessDefinitionVO::getId).collect(Collectors.toList());
+        }
+        return shard.query(() -> shard.getRepositoryService().createProcessDefinitionQuery().latestVersion().list())
+                .stream().map(ProcessDefinition::getId).collect(Collectors.toList());
+    }
+
+    private static String warmedKey(EngineShard shard, String definitionId) {
+        return shard.getName() + ":" + definitionId;
+    }
+
+    private ProcessValidator processValidator() {
+        ProcessValidator validator = ((ProcessEngineConfigurationImpl) processEngineConfiguration).getProcessValidator();
+        return validator != null ? validator : new ProcessValidatorFactory().createDefaultProcessValidator();
+    }
+
+    private static String describe(ValidationError error) {
+        StringBuilder message = new StringBuilder(error.getDefaultDescription());
+        if (error.getActivityId() != null) {
+            message.append(" [元素: ").append(error.getActivityId()).append(']');
+        }
+        if (error.getXmlLineNumber() > 0) {
+            message.append(" [行: ").append(error.getXmlLineNumber()).append(']');
+        }
+        return message.toString();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 暂存的资源及其状态，状态的读写都在该对象上同步
+     */
+    private static class Staged {
+
+        private final byte[] content;
+
+        private final DeploymentStageVO status;
+
+        Staged(byte[] content, DeploymentStageVO status) {
+            this.content = content;
+            this.status = status;
+        }
+
+        /**
+         * 同名同内容且尚未结束的暂存可以复用；已部署的不复用，期间可能已部署过其他内容
+         */
+        synchronized boolean matches(String resourceName, String hash) {
+            return status.getResourceName().equals(resourceName) && status.getContentHash().equals(hash)
+                    && (DeploymentStageVO.VALIDATING.equals(status.getStatus())
+                    || DeploymentStageVO.VALID.equals(status.getStatus())
+                    || DeploymentStageVO.DEPLOYING.equals(status.getStatus()));
+        }
+
+        synchronized DeploymentStageVO snapshot() {
+            DeploymentStageVO copy = new DeploymentStageVO();
+            BeanUtils.copyProperties(status, copy);
+            copy.setErrors(new ArrayList<>(status.getErrors()));
+            copy.setWarnings(new ArrayList<>(status.getWarnings()));
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.process.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.process.common.Result;
+import com.process.config.IdempotencyProperties;
+import com.process.metrics.ProcessMetrics;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 幂等键去重
+ * <p>
+ * 键按作用域（start、complete）区分。首个请求执行，成功的 Result 在 ttl 内按键保留，重复请求直接返回该结果，
+ * 不再访问引擎；相同键的请求并发到达时只有一个执行，其余等待它的结果（最多 wait-timeout，超时返回 409）。
+ * 失败的结果不保留，上游重试时重新执行。键与首个请求的请求体摘要绑定，相同键、不同请求体的请求返回 422。
+ * <p>
+ * 内存中按插入顺序保存，所有键的 ttl 相同，最早插入的最先过期，插入时从头部清理过期和超出 max-entries 的键；
+ * 处理中的键不清理（等待者依赖它的结果），全部处理中时可暂时超出 max-entries。
+ * 开启 database-enabled 时先在 PROC_IDEMPOTENCY 插入处理中的记录认领该键，成功后写入结果，
+ * 其他节点的重复请求直接读取表中的结果；认领的节点仍在处理时返回 409。
+ * <p>
+ * 结果在引擎事务提交后记录，提交后、记录前节点宕机时，重试仍会重新执行。
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private static final String DONE = "DONE";
+
+    private static final String INSERT_SQL = "INSERT INTO PROC_IDEMPOTENCY"
+            + " (IDEMPOTENCY_KEY, REQUEST_HASH, STATUS, CREATE_TIME, EXPIRE_TIME) VALUES (?, ?, 'PROCESSING', ?, ?)";
+
+    private static final String SELECT_SQL = "SELECT STATUS, RESPONSE, EXPIRE_TIME, REQUEST_HASH FROM PROC_IDEMPOTENCY"
+            + " WHERE IDEMPOTENCY_KEY = ?";
+
+    private static final String COMPLETE_SQL = "UPDATE PROC_IDEMPOTENCY SET STATUS = 'DONE', RESPONSE = ?, EXPIRE_TIME = ?"
+            + " WHERE IDEMPOTENCY_KEY = ?";
+
+    private static final String RELEASE_SQL = "DELETE FROM PROC_IDEMPOTENCY WHERE IDEMPOTENCY_KEY = ? AND STATUS = 'PROCESSING'";
+
+    private static final String DELETE_EXPIRED_KEY_SQL = "DELETE FROM PROC_IDEMPOTENCY WHERE IDEMPOTENCY_KEY = ? AND EXPIRE_TIME < ?";
+
+    private static final String SWEEP_SQL = "DELETE FROM PROC_IDEMPOTENCY WHERE EXPIRE_TIME < ?";
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProcessMetrics processMetrics;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        if (properties.isEnabled() && properties.isDatabaseEnabled()) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "idempotency-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getSweepInterval().toMillis();
+            sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * 按幂等键执行请求；key 为空时直接执行
+     *
+     * @param scope    作用域，不同接口的相同键互不影响
+     * @param request  请求体，与键绑定，相同键的请求体不同时返回 422
+     * @param dataType Result 中数据的类型，用于还原表中保存的结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> execute(String scope, String key, Object request, Class<T> dataType,
+                                 Supplier<Result<T>> action) {
+        if (!properties.isEnabled() || StringUtils.isBlank(key)) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return Result.error(HttpStatus.BAD_REQUEST.value(), "幂等键长度不能超过 " + MAX_KEY_LENGTH);
+        }
+        String storeKey = scope + ":" + key;
+        Entry entry = new Entry(fingerprint(request));
+        Entry existing = register(storeKey, entry);
+        if (existing != null) {
+            if (!existing.requestHash.equals(entry.requestHash)) {
+                processMetrics.idempotentRequest(scope, "mismatch");
+                return mismatch();
+            }
+            return (Result<T>) await(scope, existing);
+        }
+
+        Result<T> result;
+        try {
+            result = run(scope, storeKey, entry.requestHash, dataType, action);
+        } catch (RuntimeException e) {
+            forget(storeKey, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+        if (isSuccess(result)) {
+            entry.expireAt = System.currentTimeMillis() + properties.getTtl().toMillis();
+        } else {
+            forget(storeKey, entry);
+        }
+        entry.future.complete(result);
+        return result;
+    }
+
+    private <T> Result<T> run(String scope, String storeKey, String requestHash, Class<T> dataType,
+                              Supplier<Result<T>> action) {
+        if (!properties.isDatabaseEnabled()) {
+            processMetrics.idempotentRequest(scope, "executed");
+            return action.get();
+        }
+        Result<T> stored = claim(scope, storeKey, requestHash, dataType);
+        if (stored != null) {
+            return stored;
+        }
+        processMetrics.idempotentRequest(scope, "executed");
+        Result<T> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            jdbcTemplate.update(RELEASE_SQL, storeKey);
+            throw e;
+        }
+        if (isSuccess(result)) {
+            Date expireTime = new Date(System.currentTimeMillis() + properties.getTtl().toMillis());
+            jdbcTemplate.update(COMPLETE_SQL, serialize(result), expireTime, storeKey);
+        } else {
+            jdbcTemplate.update(RELEASE_SQL, storeKey);
+        }
+        return result;
+    }
+
+    /**
+     * 在表中认领键，认领成功返回 null；已有结果时返回该结果，其他节点正在处理时返回 409，请求体不同时返回 422
+     */
+    private <T> Result<T> claim(String scope, String storeKey, String requestHash, Class<T> dataType) {
+        Date now = new Date();
+        Date processingExpireTime = new Date(now.getTime() + properties.getProcessingTimeout().toMillis());
+        // 第二次尝试用于清理过期记录或记录恰好被删除后重新认领
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, storeKey, requestHash, now, processingExpireTime);
+                return null;
+            } catch (DuplicateKeyException e) {
+                List<StoredResult> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) ->
+                        new StoredResult(rs.getString(1), rs.getString(2), rs.getTimestamp(3), rs.getString(4)),
+                        storeKey);
+                if (rows.isEmpty()) {
+                    continue;
+                }
+                StoredResult row = rows.get(0);
+                if (row.expireTime.before(now)) {
+                    jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL, storeKey, now);
+                    continue;
+                }
+                if (!requestHash.equals(row.requestHash)) {
+                    processMetrics.idempotentRequest(scope, "mismatch");
+                    return mismatch();
+                }
+                if (DONE.equals(row.status)) {
+                    processMetrics.idempotentRequest(scope, "replayed");
+                    return deserialize(row.response, dataType);
+                }
+                break;
+            }
+        }
+        processMetrics.idempotentRequest(scope, "conflict");
+        return conflict();
+    }
+
+    private Entry register(String storeKey, Entry entry) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            purge(now);
+            Entry existing = entries.get(storeKey);
+            if (existing != null && !existing.isExpired(now)) {
+                return existing;
+            }
+            // 过期的键先移除，重新插入到尾部以保持过期顺序
+            entries.remove(storeKey);
+            entries.put(storeKey, entry);
+            return null;
+        }
+    }
+
+    /**
+     * 从头部清理过期的键，超出 max-entries 时淘汰最早的已完成键，跳过处理中的键
+     */
+    private void purge(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry head = iterator.next();
+            if (head.isInFlight()) {
+                continue;
+            }
+            if (!head.isExpired(now) && entries.size() < properties.getMaxEntries()) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private void forget(String storeKey, Entry entry) {
+        synchronized (entries) {
+            entries.remove(storeKey, entry);
+        }
+    }
+
+    private Result<?> await(String scope, Entry entry) {
+        try {
+            Result<?> result = entry.future.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            processMetrics.idempotentRequest(scope, "replayed");
+            return result;
+        } catch (TimeoutException e) {
+            processMetrics.idempotentRequest(scope, "conflict");
+            return conflict();
+        } catch (ExecutionException e) {
+            processMetrics.idempotentRequest(scope, "replayed");
+            return Result.error("请求处理失败: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return conflict();
+        }
+    }
+
+    private void sweep() {
+        try {
+            int deleted = jdbcTemplate.update(SWEEP_SQL, new Date());
+            if (deleted > 0) {
+                log.debug("清理过期幂等键 - 数量: {}", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("清理过期幂等键失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 请求体的 SHA-256 摘要，Map 按键排序，字段顺序不影响结果
+     */
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(request);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("幂等请求摘要计算失败", e);
+        }
+    }
+
+    private String serialize(Result<?> result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("幂等结果序列化失败", e);
+        }
+    }
+
+    private <T> Result<T> deserialize(String response, Class<T> dataType) {
+        JavaType type = objectMapper.getTypeFactory().constructParametricType(Result.class, dataType);
+        try {
+            return objectMapper.readValue(response, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isSuccess(Result<?> result) {
+        return result != null && Integer.valueOf(200).equals(result.getCode());
+    }
+
+    private static <T> Result<T> conflict() {
+        return Result.error(HttpStatus.CONFLICT.value(), "相同幂等键的请求正在处理中，请稍后重试");
+    }
+
+    private static <T> Result<T> mismatch() {
+        return Result.error(HttpStatus.UNPROCESSABLE_ENTITY.value(), "幂等键已用于内容不同的请求");
+    }
+
+    private static class Entry {
+
+        final CompletableFuture<Result<?>> future = new CompletableFuture<>();
+
+        final String requestHash;
+
+        /**
+         * 处理中的键不过期
+         */
+        volatile long expireAt = Long.MAX_VALUE;
+
+        Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        boolean isInFlight() {
+            return expireAt == Long.MAX_VALUE;
+        }
+
+        boolean isExpired(long now) {
+            return expireAt <= now;
+        }
+    }
+
+    private static class StoredResult {
+
+        final String status;
+
+        final String response;
+
+        final Date expireTime;
+
+        final String requestHash;
+
+        StoredResult(String status, String response, Date expireTime, String requestHash) {
+            this.status = status;
+            this.response = response;
+            this.expireTime = expireTime;
+            this.requestHash = requestHash;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.process.service;
+
+import com.process.event.ProcessDeployedEvent;
+import com.process.shard.EngineShard;
+import com.process.vo.ProcessDefinitionVO;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 流程定义元数据缓存
+ * <p>
+ * 缓存最新版本的流程定义列表及按 Key 的索引。本节点部署、挂起、激活流程定义时立即失效（版本号加一）；
+ * 其他节点的变更通过定期比对 ACT_RE_PROCDEF 的指纹（行数 + 修订号之和）发现，最大滞后为检查间隔。
+ */
+@Service
+public class ProcessDefinitionCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessDefinitionCacheService.class);
+
+    private static final String FINGERPRINT_SQL = "SELECT COUNT(*), COALESCE(SUM(REV_), 0) FROM ACT_RE_PROCDEF";
+
+    /**
+     * 注入代理，避免与注册到引擎中的事件监听器形成循环依赖
+     */
+    @Lazy
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${process.definition-cache.check-interval:5000}")
+    private long checkInterval;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * 获取所有流程定义的最新版本，按 Key 升序
+     */
+    public List<ProcessDefinitionVO> listLatest() {
+        return current().definitions;
+    }
+
+    /**
+     * 获取指定 Key 的最新版本流程定义，不存在时返回 null
+     */
+    public ProcessDefinitionVO getLatest(String processDefinitionKey) {
+        return current().byKey.get(processDefinitionKey);
+    }
+
+    /**
+     * 请求中传入的 Key 对应已部署的流程定义时原样返回，否则返回 null；用于指标标签，避免任意 Key 占用标签取值
+     */
+    public String deployedKey(String processDefinitionKey) {
+        return processDefinitionKey != null && getLatest(processDefinitionKey) != null ? processDefinitionKey : null;
+    }
+
+    /**
+     * 当前缓存版本号，每次失效加一
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * 使缓存失效，下次访问时重新加载
+     */
+    public void invalidate(String reason) {
+        long newVersion = version.incrementAndGet();
+        log.debug("流程定义缓存失效 - 版本: {}, 原因: {}", newVersion, reason);
+    }
+
+    @EventListener
+    public void onProcessDeployed(ProcessDeployedEvent event) {
+        invalidate("部署 " + event.getDeploymentId());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version.get()) {
+            long now = System.currentTimeMillis();
+            if (now - current.checkedAt < checkInterval) {
+                return current;
+            }
+            if (current.fingerprint.equals(fingerprint())) {
+                current.checkedAt = now;
+                return current;
+            }
+            invalidate("其他节点变更");
+        }
+        return reload();
+    }
+
+    private synchronized Snapshot reload() {
+        Snapshot current = snapshot;
+        long currentVersion = version.get();
+        if (current != null && current.version == currentVersion
+                && System.currentTimeMillis() - current.checkedAt < checkInterval) {
+            return current;
+        }
+
+        // 先取指纹再查列表，期间若有变更，下次检查会发现指纹不一致
+        String fingerprint = fingerprint();
+        List<ProcessDefinitionVO> definitions = repositoryService.createProcessDefinitionQuery()
+                .latestVersion()
+                .orderByProcessDefinitionKey()
+                .asc()
+                .list()
+                .stream()
+                .map(definition -> convertToProcessDefinitionVO(definition, EngineShard.DEFAULT))
+                .collect(Collectors.toList());
+
+        Map<String, ProcessDefinitionVO> byKey = new HashMap<>(definitions.size() * 2);
+        definitions.forEach(definition -> byKey.put(definition.getKey(), definition));
+        snapshot = new Snapshot(currentVersion, fingerprint,
+                Collections.unmodifiableList(definitions), Collections.unmodifiableMap(byKey));
+        return snapshot;
+    }
+
+    private String fingerprint() {
+        return jdbcTemplate.queryForObject(FINGERPRINT_SQL, (rs, rowNum) -> rs.getLong(1) + ":" + rs.getLong(2));
+    }
+
+    /**
+     * 转换为流程定义 VO
+     */
+    static ProcessDefinitionVO convertToProcessDefinitionVO(ProcessDefinition pd, String shard) {
+        ProcessDefinitionVO vo = new ProcessDefinitionVO();
+        vo.setId(pd.getId());
+        vo.setKey(pd.getKey());
+        vo.setName(pd.getName());
+        vo.setVersion(pd.getVersion());
+        vo.setDeploymentId(pd.getDeploymentId());
+        vo.setResourceName(pd.getResourceName());
+        vo.setDescription(pd.getDescription());
+        vo.setSuspended(pd.isSuspended());
+        vo.setShard(shard);
+        return vo;
+    }
+
+    /**
+     * 缓存快照
+     */
+    private static class Snapshot {
+
+        private final long version;
+
+        private final String fingerprint;
+
+        private final List<ProcessDefinitionVO> definitions;
+
+        private final Map<String, ProcessDefinitionVO> byKey;
+
+        private volatile long checkedAt;
+
+        Snapshot(long version, String fingerprint,
+                 List<ProcessDefinitionVO> definitions, Map<String, ProcessDefinitionVO> byKey) {
+            this.version = version;
+            this.fingerprint = fingerprint;
+            this.definitions = definitions;
+            this.byKey = byKey;
+            this.checkedAt = System.currentTimeMillis();
+        }
+    }
+}
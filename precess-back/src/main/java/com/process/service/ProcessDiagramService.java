@@ -0,0 +1,416 @@
+package com.process.service;
+
+import com.process.event.ProcessDeployedEvent;
+import com.process.shard.EngineShard;
+import com.process.shard.EngineShardRegistry;
+import com.process.vo.DiagramElementVO;
+import com.process.vo.ProcessDiagramStateVO;
+import org.apache.commons.lang3.StringUtils;
+import org.flowable.bpmn.model.BpmnModel;
+import org.flowable.bpmn.model.FlowElement;
+import org.flowable.bpmn.model.GraphicInfo;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.history.HistoricActivityInstance;
+import org.flowable.engine.history.HistoricProcessInstance;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.HtmlUtils;
+import org.springframework.web.util.UriUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流程图缓存服务
+ * <p>
+ * 流程定义部署后不可变，渲染好的 PNG 按流程定义 ID 缓存（LRU 淘汰），并在部署后预先渲染。
+ * 同一流程定义并发未命中时只渲染一次。
+ * <p>
+ * 流程实例的运行状态不再重新渲染 PNG，而是在缓存底图之上叠加高亮元素（JSON 坐标或 SVG 覆盖层），
+ * 每次请求只需一次历史活动查询。启用分片时按 tenantId 读取所在分片的流程定义和历史；
+ * 不同分片的流程定义 ID 不会重复，缓存仍按流程定义 ID 共用。
+ */
+@Service
+public class ProcessDiagramService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessDiagramService.class);
+
+    @Autowired
+    private ProcessService processService;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    @Value("${process.diagram.cache-size:256}")
+    private int cacheSize;
+
+    private Map<String, Diagram> cache;
+
+    private final Map<String, CompletableFuture<Diagram>> rendering = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private ExecutorService warmUpExecutor;
+
+    @PostConstruct
+    public void init() {
+        cache = new LinkedHashMap<String, Diagram>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Diagram> eldest) {
+                if (size() > cacheSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        warmUpExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "diagram-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        warmUpExecutor.shutdownNow();
+    }
+
+    /**
+     * 获取默认分片中流程定义的流程图
+     */
+    public Diagram getDiagram(String processDefinitionId) {
+        return getDiagram(processDefinitionId, null);
+    }
+
+    /**
+     * 获取租户所在分片中流程定义的流程图，未命中时渲染并放入缓存
+     */
+    public Diagram getDiagram(String processDefinitionId, String tenantId) {
+        Diagram diagram;
+        synchronized (cache) {
+            diagram = cache.get(processDefinitionId);
+        }
+        if (diagram != null) {
+            hits.incrementAndGet();
+            return diagram;
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<Diagram> future = new CompletableFuture<>();
+        CompletableFuture<Diagram> existing = rendering.putIfAbsent(processDefinitionId, future);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            diagram = render(processDefinitionId, tenantId);
+            synchronized (cache) {
+                cache.put(processDefinitionId, diagram);
+            }
+            future.complete(diagram);
+            return diagram;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(processDefinitionId);
+        }
+    }
+
+    /**
+     * 获取默认分片中流程实例的运行状态图，不存在时返回 null
+     */
+    public ProcessDiagramStateVO getInstanceState(String processInstanceId) {
+        return getInstanceState(processInstanceId, null);
+    }
+
+    /**
+     * 获取租户所在分片中流程实例的运行状态图，不存在时返回 null
+     */
+    public ProcessDiagramStateVO getInstanceState(String processInstanceId, String tenantId) {
+        EngineShard shard = engineShards.forTenant(tenantId);
+        // 流程实例、流程模型和活动历史在同一个引擎命令中读取，共用命令上下文和数据库会话
+        ProcessDiagramStateVO state = shard.query(() -> shard.getManagementService().executeCommand(
+                commandContext -> loadInstanceState(shard, processInstanceId, tenantId)));
+        if (state == null) {
+            return null;
+        }
+        Diagram diagram = getDiagram(state.getProcessDefinitionId(), tenantId);
+        state.setWidth(diagram.getWidth());
+        state.setHeight(diagram.getHeight());
+        return state;
+    }
+
+    private ProcessDiagramStateVO loadInstanceState(EngineShard shard, String processInstanceId, String tenantId) {
+        HistoricProcessInstance instance = shard.getHistoryService().createHistoricProcessInstanceQuery()
+                .processInstanceId(processInstanceId)
+                .singleResult();
+        if (instance == null) {
+            return null;
+        }
+        String processDefinitionId = instance.getProcessDefinitionId();
+        BpmnModel bpmnModel = shard.getRepositoryService().getBpmnModel(processDefinitionId);
+
+        // 一次查询拿到已完成、进行中的节点和经过的连线
+        Set<String> active = new LinkedHashSet<>();
+        Set<String> completed = new LinkedHashSet<>();
+        Set<String> flows = new LinkedHashSet<>();
+        List<HistoricActivityInstance> activities = shard.getHistoryService().createHistoricActivityInstanceQuery()
+                .processInstanceId(processInstanceId)
+                .orderByHistoricActivityInstanceStartTime()
+                .asc()
+                .list();
+        for (HistoricActivityInstance activity : activities) {
+            if ("sequenceFlow".equals(activity.getActivityType())) {
+                flows.add(activity.getActivityId());
+            } else if (activity.getEndTime() == null) {
+                active.add(activity.getActivityId());
+            } else {
+                completed.add(activity.getActivityId());
+            }
+        }
+        completed.removeAll(active);
+
+        ProcessDiagramStateVO state = new ProcessDiagramStateVO();
+        state.setProcessInstanceId(processInstanceId);
+        state.setProcessDefinitionId(processDefinitionId);
+        state.setDiagramUrl("/api/process/diagram/" + processDefinitionId + (StringUtils.isNotBlank(tenantId)
+                ? "?tenantId=" + UriUtils.encodeQueryParam(tenantId, StandardCharsets.UTF_8) : ""));
+        state.setActiveActivities(toShapes(bpmnModel, active));
+        state.setCompletedActivities(toShapes(bpmnModel, completed));
+        state.setTakenFlows(toEdges(bpmnModel, flows));
+        return state;
+    }
+
+    /**
+     * 生成运行状态的 SVG 覆盖层，底图以引用方式嵌入，可直接利用底图的浏览器缓存
+     */
+    public String renderStateSvg(ProcessDiagramStateVO state) {
+        StringBuilder svg = new StringBuilder(1024);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"")
+                .append(" width=\"").append(state.getWidth()).append("\" height=\"").append(state.getHeight())
+                .append("\" data-process-instance-id=\"").append(escape(state.getProcessInstanceId())).append("\">")
+                .append("<image x=\"0\" y=\"0\" width=\"").append(state.getWidth())
+                .append("\" height=\"").append(state.getHeight())
+                .append("\" xlink:href=\"").append(escape(state.getDiagramUrl())).append("\"/>");
+        for (DiagramElementVO flow : state.getTakenFlows()) {
+            svg.append("<polyline class=\"taken-flow\" data-flow-id=\"").append(escape(flow.getId()))
+                    .append("\" fill=\"none\" stroke=\"#2e9e44\" stroke-width=\"2\" points=\"");
+            for (double[] point : flow.getWaypoints()) {
+                svg.append(point[0]).append(',').append(point[1]).append(' ');
+            }
+            svg.append("\"/>");
+        }
+        appendShapes(svg, state.getCompletedActivities(), "completed-activity", "#2e9e44");
+        appendShapes(svg, state.getActiveActivities(), "active-activity", "#ff0000");
+        return svg.append("</svg>").toString();
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        synchronized (cache) {
+            stats.put("size", cache.size());
+            stats.put("bytes", cache.values().stream().mapToLong(d -> d.getContent().length).sum());
+        }
+        stats.put("capacity", cacheSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+
+    /**
+     * 应用启动后预渲染所有最新版本的流程定义
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp(repositoryService.createProcessDefinitionQuery().latestVersion().list());
+    }
+
+    /**
+     * 部署完成后预渲染该部署下的流程定义
+     */
+    @EventListener
+    public void onProcessDeployed(ProcessDeployedEvent event) {
+        warmUp(repositoryService.createProcessDefinitionQuery().deploymentId(event.getDeploymentId()).list());
+    }
+
+    private void warmUp(List<ProcessDefinition> definitions) {
+        for (ProcessDefinition definition : definitions) {
+            warmUpExecutor.execute(() -> {
+                try {
+                    getDiagram(definition.getId());
+                } catch (Exception e) {
+                    log.warn("预渲染流程图失败 - 流程定义ID: {}, 原因: {}", definition.getId(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    private Diagram render(String processDefinitionId, String tenantId) {
+        long start = System.currentTimeMillis();
+        try (InputStream inputStream = processService.getProcessDiagram(processDefinitionId, tenantId)) {
+            byte[] content = StreamUtils.copyToByteArray(inputStream);
+            log.debug("渲染流程图 - 流程定义ID: {}, 大小: {} 字节, 耗时: {}ms",
+                    processDefinitionId, content.length, System.currentTimeMillis() - start);
+            return new Diagram(content, "\"" + DigestUtils.md5DigestAsHex(content) + "\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<DiagramElementVO> toShapes(BpmnModel bpmnModel, Set<String> activityIds) {
+        List<DiagramElementVO> shapes = new ArrayList<>(activityIds.size());
+        for (String activityId : activityIds) {
+            GraphicInfo info = bpmnModel.getGraphicInfo(activityId);
+            if (info == null) {
+                continue;
+            }
+            DiagramElementVO shape = new DiagramElementVO();
+            shape.setId(activityId);
+            shape.setName(nameOf(bpmnModel, activityId));
+            shape.setX(info.getX());
+            shape.setY(info.getY());
+            shape.setWidth(info.getWidth());
+            shape.setHeight(info.getHeight());
+            shapes.add(shape);
+        }
+        return shapes;
+    }
+
+    private static List<DiagramElementVO> toEdges(BpmnModel bpmnModel, Set<String> flowIds) {
+        List<DiagramElementVO> edges = new ArrayList<>(flowIds.size());
+        for (String flowId : flowIds) {
+            List<GraphicInfo> infos = bpmnModel.getFlowLocationGraphicInfo(flowId);
+            if (infos == null || infos.isEmpty()) {
+                continue;
+            }
+            List<double[]> waypoints = new ArrayList<>(infos.size());
+            for (GraphicInfo info : infos) {
+                waypoints.add(new double[]{info.getX(), info.getY()});
+            }
+            DiagramElementVO edge = new DiagramElementVO();
+            edge.setId(flowId);
+            edge.setName(nameOf(bpmnModel, flowId));
+            edge.setWaypoints(waypoints);
+            edges.add(edge);
+        }
+        return edges;
+    }
+
+    private static String nameOf(BpmnModel bpmnModel, String elementId) {
+        FlowElement element = bpmnModel.getFlowElement(elementId);
+        return element != null ? element.getName() : null;
+    }
+
+    private static void appendShapes(StringBuilder svg, List<DiagramElementVO> shapes, String cssClass, String color) {
+        for (DiagramElementVO shape : shapes) {
+            svg.append("<rect class=\"").append(cssClass).append("\" data-activity-id=\"").append(escape(shape.getId()))
+                    .append("\" x=\"").append(shape.getX()).append("\" y=\"").append(shape.getY())
+                    .append("\" width=\"").append(shape.getWidth()).append("\" height=\"").append(shape.getHeight())
+                    .append("\" rx=\"10\" ry=\"10\" fill=\"none\" stroke=\"").append(color).append("\" stroke-width=\"3\">");
+            if (shape.getName() != null) {
+                svg.append("<title>").append(escape(shape.getName())).append("</title>");
+            }
+            svg.append("</rect>");
+        }
+    }
+
+    private static String escape(String value) {
+        return HtmlUtils.htmlEscape(value, "UTF-8");
+    }
+
+    private static Diagram join(CompletableFuture<Diagram> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待流程图渲染被中断", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 渲染好的流程图
+     */
+    public static class Diagram {
+
+        private final byte[] content;
+
+        private final String etag;
+
+        private final int width;
+
+        private final int height;
+
+        public Diagram(byte[] content, String etag) {
+            this.content = content;
+            this.etag = etag;
+            // PNG 的 IHDR 块紧跟 8 字节文件头，宽高分别位于第 16、20 字节起的 4 字节
+            this.width = readInt(content, 16);
+            this.height = readInt(content, 20);
+        }
+
+        private static int readInt(byte[] bytes, int offset) {
+            return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16
+                    | (bytes[offset + 2] & 0xff) << 8 | (bytes[offset + 3] & 0xff);
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+}
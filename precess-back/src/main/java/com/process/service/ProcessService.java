@@ -1,58 +1,138 @@
 package com.process.service;
 
+import com.process.archive.ArchivedInstance;
 import com.process.dto.ProcessStartRequest;
+import com.process.event.ProcessDeployedEvent;
 import com.process.dto.TaskCompleteRequest;
+import com.process.dto.TaskInboxQuery;
+import com.process.mapper.ArchiveMapper;
+import com.process.mapper.TaskInboxMapper;
+import com.process.metrics.ProcessMetrics;
+import com.process.shard.EngineShard;
+import com.process.shard.EngineShardRegistry;
+import com.process.vo.BatchItemResultVO;
+import com.process.vo.BatchResultVO;
+import com.process.vo.CursorPageVO;
 import com.process.vo.ProcessDefinitionVO;
 import com.process.vo.ProcessInstanceVO;
 import com.process.vo.TaskVO;
+import org.apache.commons.lang3.StringUtils;
 import org.flowable.bpmn.model.BpmnModel;
 import org.flowable.engine.*;
 import org.flowable.engine.history.HistoricProcessInstance;
 import org.flowable.engine.repository.Deployment;
-import org.flowable.engine.repository.ProcessDefinition;
 import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.engine.runtime.ProcessInstanceBuilder;
 import org.flowable.task.api.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * 流程服务
+ * <p>
+ * 查询方法标记为只读事务，开启读写分离（process.datasource.replica）时走只读副本。
+ * <p>
+ * 启用多租户分片（process.sharding）时，启动、完成任务和流程实例查询按请求中的租户路由到对应分片；
+ * 流程定义列表和用户待办在所有分片上并行查询后合并。
  */
 @Service
 public class ProcessService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProcessService.class);
+
+    private static final Comparator<ProcessDefinitionVO> DEFINITION_ORDER =
+            Comparator.comparing(ProcessDefinitionVO::getKey).thenComparing(ProcessDefinitionVO::getShard);
+
+    private static final Comparator<TaskVO> TASK_ORDER =
+            Comparator.comparing(TaskVO::getCreateTime, Comparator.nullsLast(Comparator.reverseOrder()));
+
     @Autowired
     private RepositoryService repositoryService;
 
     @Autowired
-    private RuntimeService runtimeService;
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    private TaskService taskService;
+    private ProcessDefinitionCacheService processDefinitionCacheService;
 
     @Autowired
-    private HistoryService historyService;
+    private ProcessMetrics processMetrics;
 
     @Autowired
-    private ProcessEngine processEngine;
+    private TaskInboxCacheService taskInboxCacheService;
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    /**
+     * 批量完成任务时每个事务处理的任务数
+     */
+    @Value("${process.batch.chunk-size:50}")
+    private int defaultChunkSize;
+
+    /**
+     * 待办分页默认每页条数
+     */
+    @Value("${process.inbox.default-page-size:20}")
+    private int defaultPageSize;
+
+    /**
+     * 待办分页每页最大条数
+     */
+    @Value("${process.inbox.max-page-size:200}")
+    private int maxPageSize;
 
     /**
      * 部署流程定义
+     * <p>
+     * 内容与同名的最新部署相同时不产生新版本，返回已有部署的 ID。
+     * 启用分片时依次部署到所有分片，返回默认分片的部署 ID；部分分片失败时可重新部署，已成功的分片不会重复部署。
      */
     public String deployProcess(String resourceName, InputStream inputStream) {
-        Deployment deployment = repositoryService.createDeployment()
-                .addInputStream(resourceName, inputStream)
-                .name(resourceName)
-                .deploy();
+        byte[] content;
+        try {
+            content = StreamUtils.copyToByteArray(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Deployment deployment = processMetrics.time("deployProcess", ProcessMetrics.NONE, () -> {
+            Deployment defaultDeployment = null;
+            for (EngineShard shard : engineShards.getShards()) {
+                Deployment deployed = shard.getRepositoryService().createDeployment()
+                        .addBytes(resourceName, content)
+                        .name(resourceName)
+                        .enableDuplicateFiltering()
+                        .deploy();
+                if (shard.isDefault()) {
+                    defaultDeployment = deployed;
+                }
+            }
+            return defaultDeployment;
+        });
+        eventPublisher.publishEvent(new ProcessDeployedEvent(this, deployment.getId()));
         return deployment.getId();
     }
 
@@ -60,31 +140,60 @@ public class ProcessService {
      * 获取所有流程定义
      */
     public List<ProcessDefinitionVO> listProcessDefinitions() {
-        List<ProcessDefinition> list = repositoryService.createProcessDefinitionQuery()
-                .latestVersion()
-                .orderByProcessDefinitionKey()
-                .asc()
-                .list();
+        return processMetrics.time("listProcessDefinitions", ProcessMetrics.NONE,
+                () -> engineShards.fanOut(shard -> shard.query(() -> shard.isDefault()
+                        ? processDefinitionCacheService.listLatest()
+                        : listLatestDefinitions(shard)), DEFINITION_ORDER));
+    }
 
-        return list.stream().map(pd -> {
-            ProcessDefinitionVO vo = new ProcessDefinitionVO();
-            vo.setId(pd.getId());
-            vo.setKey(pd.getKey());
-            vo.setName(pd.getName());
-            vo.setVersion(pd.getVersion());
-            vo.setDeploymentId(pd.getDeploymentId());
-            vo.setResourceName(pd.getResourceName());
-            vo.setDescription(pd.getDescription());
-            vo.setSuspended(pd.isSuspended());
-            return vo;
-        }).collect(Collectors.toList());
+    private List<ProcessDefinitionVO> listLatestDefinitions(EngineShard shard) {
+        return shard.getRepositoryService().createProcessDefinitionQuery()
+                .latestVersion()
+                .list()
+                .stream()
+                .map(definition -> ProcessDefinitionCacheService.convertToProcessDefinitionVO(definition, shard.getName()))
+                .collect(Collectors.toList());
     }
 
     /**
      * 启动流程实例
      */
-    @Transactional(rollbackFor = Exception.class)
     public ProcessInstanceVO startProcess(ProcessStartRequest request) {
+        EngineShard shard = engineShards.forTenant(request.getTenantId());
+        return processMetrics.time("startProcess", ProcessInstanceVO::getProcessDefinitionKey,
+                () -> shard.execute(() -> convertToProcessInstanceVO(doStartProcess(shard, request))));
+    }
+
+    /**
+     * 在同一事务中批量启动流程实例，任一失败则整批回滚
+     * <p>
+     * 整批必须属于同一分片（跨库无法在一个事务中提交）。
+     */
+    public List<ProcessInstanceVO> startProcesses(List<ProcessStartRequest> requests) {
+        EngineShard shard = engineShards.forTenant(requests.get(0).getTenantId());
+        for (ProcessStartRequest request : requests) {
+            if (engineShards.forTenant(request.getTenantId()) != shard) {
+                throw new IllegalArgumentException("同一批次的请求必须属于同一分片");
+            }
+        }
+
+        // 整批属于同一流程定义时才带上 Key 标签
+        return processMetrics.time("startProcesses", ProcessService::singleDefinitionKey, () -> shard.execute(() -> {
+            List<ProcessInstanceVO> result = new ArrayList<>(requests.size());
+            for (ProcessStartRequest request : requests) {
+                result.add(convertToProcessInstanceVO(doStartProcess(shard, request)));
+            }
+            return result;
+        }));
+    }
+
+    private static String singleDefinitionKey(List<ProcessInstanceVO> instances) {
+        List<String> keys = instances.stream().map(ProcessInstanceVO::getProcessDefinitionKey)
+                .distinct().collect(Collectors.toList());
+        return keys.size() == 1 ? keys.get(0) : ProcessMetrics.NONE;
+    }
+
+    private ProcessInstance doStartProcess(EngineShard shard, ProcessStartRequest request) {
         // 设置流程发起人
         String userId = request.getStartUserId();
         
@@ -95,51 +204,189 @@ public class ProcessService {
         }
         variables.put("startUserId", userId);
         
-        // 启动流程实例
-        ProcessInstance processInstance;
-        if (request.getBusinessKey() != null) {
-            processInstance = runtimeService.startProcessInstanceByKey(
-                    request.getProcessDefinitionKey(),
-                    request.getBusinessKey(),
-                    variables
-            );
+        // 启动流程实例，名称在创建时一并写入，避免再单独更新一次
+        ProcessInstanceBuilder builder = shard.getRuntimeService().createProcessInstanceBuilder().variables(variables);
+        
+        // 缓存中有可用的最新版本时直接按 ID 启动，省去按 Key 查最新版本的查询（缓存只对应默认分片）
+        ProcessDefinitionVO definition = shard.isDefault()
+                ? processDefinitionCacheService.getLatest(request.getProcessDefinitionKey()) : null;
+        if (definition != null && !Boolean.TRUE.equals(definition.getSuspended())) {
+            builder.processDefinitionId(definition.getId());
         } else {
-            processInstance = runtimeService.startProcessInstanceByKey(
-                    request.getProcessDefinitionKey(),
-                    variables
-            );
+            builder.processDefinitionKey(request.getProcessDefinitionKey());
+        }
+        if (request.getBusinessKey() != null) {
+            builder.businessKey(request.getBusinessKey());
         }
-        
-        // 设置流程实例名称
         if (request.getProcessInstanceName() != null) {
-            runtimeService.setProcessInstanceName(
-                    processInstance.getId(),
-                    request.getProcessInstanceName()
-            );
+            builder.name(request.getProcessInstanceName());
         }
-        
-        // 转换为 VO
-        return convertToProcessInstanceVO(processInstance);
+        // 流程定义部署时不带租户，实例、任务记录请求中的租户
+        if (StringUtils.isNotBlank(request.getTenantId())) {
+            builder.overrideProcessDefinitionTenantId(request.getTenantId());
+        }
+        return builder.start();
     }
 
     /**
-     * 获取用户的待办任务
+     * 获取用户的待办任务，优先读取按办理人缓存的列表
+     * <p>
+     * 启用分片时合并所有分片的待办，按创建时间倒序；缓存只覆盖默认分片。
      */
     public List<TaskVO> listUserTasks(String userId) {
-        List<Task> tasks = taskService.createTaskQuery()
+        return processMetrics.time("listUserTasks", ProcessMetrics.NONE,
+                () -> engineShards.fanOut(shard -> shard.query(() -> shard.isDefault()
+                        ? taskInboxCacheService.get(userId, () -> doListUserTasks(shard, userId))
+                        : doListUserTasks(shard, userId)), TASK_ORDER));
+    }
+
+    private List<TaskVO> doListUserTasks(EngineShard shard, String userId) {
+        List<Task> tasks = shard.getTaskService().createTaskQuery()
                 .taskAssignee(userId)
                 .orderByTaskCreateTime()
                 .desc()
                 .list();
 
-        return tasks.stream().map(this::convertToTaskVO).collect(Collectors.toList());
+        return tasks.stream().map(ProcessService::convertToTaskVO).collect(Collectors.toList());
+    }
+
+    /**
+     * 分页获取用户的待办任务
+     * <p>
+     * 按创建时间、任务 ID 倒序做游标分页，只查询 TaskVO 需要的列，不加载完整的任务实体。
+     * 启用分片时查询 tenantId 所在分片，游标只在同一分片内有效。
+     */
+    public CursorPageVO<TaskVO> pageUserTasks(TaskInboxQuery query) {
+        EngineShard shard = engineShards.forTenant(query.getTenantId());
+        return processMetrics.time("pageUserTasks",
+                processDefinitionCacheService.deployedKey(query.getProcessDefinitionKey()),
+                () -> shard.query(() -> doPageUserTasks(shard, query)));
+    }
+
+    private CursorPageVO<TaskVO> doPageUserTasks(EngineShard shard, TaskInboxQuery query) {
+        int size = query.getSize() != null && query.getSize() > 0
+                ? Math.min(query.getSize(), maxPageSize) : defaultPageSize;
+        
+        Date afterCreateTime = null;
+        String afterId = null;
+        if (query.getCursor() != null && !query.getCursor().isEmpty()) {
+            String decoded = new String(Base64.getUrlDecoder().decode(query.getCursor()), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            afterCreateTime = new Date(Long.parseLong(decoded.substring(0, separator)));
+            afterId = decoded.substring(separator + 1);
+        }
+        
+        // 多取一条用于判断是否还有下一页
+        List<TaskVO> records = shard.getMapper(TaskInboxMapper.class)
+                .selectInboxPage(query, afterCreateTime, afterId, size + 1);
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, size));
+        }
+        
+        CursorPageVO<TaskVO> page = new CursorPageVO<>();
+        page.setRecords(records);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            TaskVO last = records.get(records.size() - 1);
+            String cursor = last.getCreateTime().getTime() + ":" + last.getId();
+            page.setNextCursor(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(cursor.getBytes(StandardCharsets.UTF_8)));
+        }
+        return page;
     }
 
     /**
      * 完成任务
      */
-    @Transactional(rollbackFor = Exception.class)
     public void completeTask(TaskCompleteRequest request) {
+        EngineShard shard = engineShards.forTenant(request.getTenantId());
+        processMetrics.time("completeTask", ProcessMetrics::keyOfDefinitionId,
+                () -> shard.execute(() -> doCompleteTask(shard, request)));
+    }
+
+    /**
+     * 批量完成任务
+     * <p>
+     * 按分块提交，每块共用一个事务；某块失败时整块回滚，再逐条单独重试，
+     * 失败的任务只影响自身，不会中断整个批次。启用分片时先按分片分组，逐项结果仍按请求顺序排列。
+     */
+    public BatchResultVO completeTasks(List<TaskCompleteRequest> requests, Integer chunkSize) {
+        return processMetrics.time("completeTasks", ProcessMetrics.NONE, () -> doCompleteTasks(requests, chunkSize));
+    }
+
+    private BatchResultVO doCompleteTasks(List<TaskCompleteRequest> requests, Integer chunkSize) {
+        int size = chunkSize != null && chunkSize > 0 ? chunkSize : defaultChunkSize;
+        // 按分片分组时只记录请求下标，结果写回原位置，保证逐项结果与请求顺序一致
+        Map<EngineShard, List<Integer>> byShard = IntStream.range(0, requests.size()).boxed()
+                .collect(Collectors.groupingBy(index -> engineShards.forTenant(requests.get(index).getTenantId()),
+                        LinkedHashMap::new, Collectors.toList()));
+        
+        long start = System.currentTimeMillis();
+        BatchItemResultVO[] items = new BatchItemResultVO[requests.size()];
+        byShard.forEach((shard, indexes) -> completeInChunks(shard, requests, indexes, size, items));
+        long cost = System.currentTimeMillis() - start;
+        
+        BatchResultVO result = new BatchResultVO();
+        result.setTotal(requests.size());
+        result.setSuccessCount((int) Arrays.stream(items).filter(BatchItemResultVO::getSuccess).count());
+        result.setFailureCount(result.getTotal() - result.getSuccessCount());
+        result.setCostMillis(cost);
+        result.setThroughput(cost > 0 ? requests.size() * 1000.0 / cost : requests.size() * 1000.0);
+        result.setItems(Arrays.asList(items));
+        log.info("批量完成任务 - 总数: {}, 成功: {}, 失败: {}, 耗时: {}ms, 分块大小: {}",
+                result.getTotal(), result.getSuccessCount(), result.getFailureCount(), cost, size);
+        return result;
+    }
+
+    private void completeInChunks(EngineShard shard, List<TaskCompleteRequest> requests, List<Integer> indexes,
+                                  int size, BatchItemResultVO[] items) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(shard.getTransactionManager());
+        for (int from = 0; from < indexes.size(); from += size) {
+            List<Integer> chunk = indexes.subList(from, Math.min(from + size, indexes.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        chunk.forEach(index -> doCompleteTask(shard, requests.get(index))));
+                chunk.forEach(index -> items[index] = BatchItemResultVO.success(requests.get(index).getTaskId()));
+            } catch (Exception e) {
+                log.warn("批量完成任务分块失败，改为逐条重试 - 分片: {}, 起始位置: {}, 原因: {}",
+                        shard.getName(), from, e.getMessage());
+                for (Integer index : chunk) {
+                    items[index] = completeTaskAlone(shard, transactionTemplate, requests.get(index));
+                }
+            }
+        }
+    }
+
+    /**
+     * 在独立事务中完成单个任务
+     */
+    private BatchItemResultVO completeTaskAlone(EngineShard shard, TransactionTemplate transactionTemplate,
+                                               TaskCompleteRequest request) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> doCompleteTask(shard, request));
+            return BatchItemResultVO.success(request.getTaskId());
+        } catch (Exception e) {
+            return BatchItemResultVO.failure(request.getTaskId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 完成任务，返回任务所属的流程定义 ID
+     */
+    private String doCompleteTask(EngineShard shard, TaskCompleteRequest request) {
+        // 先查任务再完成放在同一个引擎命令中，完成时直接使用会话缓存中的任务实体，不增加查询
+        return shard.getManagementService().executeCommand(commandContext -> {
+            Task task = shard.getTaskService().createTaskQuery().taskId(request.getTaskId()).singleResult();
+            doCompleteTask(shard.getTaskService(), request);
+            return task != null ? task.getProcessDefinitionId() : null;
+        });
+    }
+
+    private void doCompleteTask(TaskService taskService, TaskCompleteRequest request) {
         String taskId = request.getTaskId();
         
         // 添加审批意见
@@ -163,40 +410,79 @@ public class ProcessService {
     }
 
     /**
-     * 获取流程实例详情
+     * 获取默认分片中的流程实例详情
      */
     public ProcessInstanceVO getProcessInstance(String processInstanceId) {
-        ProcessInstance processInstance = runtimeService.createProcessInstanceQuery()
-                .processInstanceId(processInstanceId)
-                .singleResult();
+        return getProcessInstance(processInstanceId, null);
+    }
+
+    /**
+     * 获取租户所在分片中的流程实例详情
+     */
+    public ProcessInstanceVO getProcessInstance(String processInstanceId, String tenantId) {
+        EngineShard shard = engineShards.forTenant(tenantId);
+        return processMetrics.time("getProcessInstance", ProcessInstanceVO::getProcessDefinitionKey,
+                () -> shard.query(() -> doGetProcessInstance(shard, processInstanceId)));
+    }
+
+    private ProcessInstanceVO doGetProcessInstance(EngineShard shard, String processInstanceId) {
+        // 运行时、历史两次查询放在同一个引擎命令中，共用命令上下文和数据库会话
+        ProcessInstanceVO vo = shard.getManagementService().executeCommand(commandContext -> {
+            ProcessInstance processInstance = shard.getRuntimeService().createProcessInstanceQuery()
+                    .processInstanceId(processInstanceId)
+                    .singleResult();
+            
+            if (processInstance != null) {
+                return convertToProcessInstanceVO(processInstance);
+            }
+            
+            // 如果运行时没有，查询历史
+            HistoricProcessInstance historicProcessInstance = shard.getHistoryService()
+                    .createHistoricProcessInstanceQuery()
+                    .processInstanceId(processInstanceId)
+                    .singleResult();
+            
+            return historicProcessInstance != null ? convertToHistoricProcessInstanceVO(historicProcessInstance) : null;
+        });
         
-        if (processInstance != null) {
-            return convertToProcessInstanceVO(processInstance);
+        if (vo != null) {
+            return vo;
         }
         
-        // 如果运行时没有，查询历史
-        HistoricProcessInstance historicProcessInstance = historyService
-                .createHistoricProcessInstanceQuery()
-                .processInstanceId(processInstanceId)
-                .singleResult();
-        
-        if (historicProcessInstance != null) {
-            return convertToHistoricProcessInstanceVO(historicProcessInstance);
+        // 历史中也没有，可能已归档（归档表在实例所在的分片库中）
+        ArchivedInstance archivedInstance = shard.getMapper(ArchiveMapper.class).selectById(processInstanceId);
+        if (archivedInstance != null) {
+            return convertToArchivedProcessInstanceVO(archivedInstance);
         }
         
         return null;
     }
 
     /**
-     * 获取流程图（PNG 格式）
+     * 获取默认分片中流程定义的流程图（PNG 格式）
      */
     public InputStream getProcessDiagram(String processDefinitionId) {
-        BpmnModel bpmnModel = repositoryService.getBpmnModel(processDefinitionId);
+        return getProcessDiagram(processDefinitionId, null);
+    }
+
+    /**
+     * 获取租户所在分片中流程定义的流程图（PNG 格式）
+     */
+    public InputStream getProcessDiagram(String processDefinitionId, String tenantId) {
+        EngineShard shard = engineShards.forTenant(tenantId);
+        // 流程定义存在、生成成功时才按 ID 中的 Key 打标签
+        return processMetrics.time("getProcessDiagram",
+                diagram -> ProcessMetrics.keyOfDefinitionId(processDefinitionId),
+                () -> shard.query(() -> doGetProcessDiagram(shard, processDefinitionId)));
+    }
+
+    private InputStream doGetProcessDiagram(EngineShard shard, String processDefinitionId) {
+        BpmnModel bpmnModel = shard.getRepositoryService().getBpmnModel(processDefinitionId);
         
         // 获取当前活动节点
         List<String> activeActivityIds = new ArrayList<>();
         
-        return processEngine.getProcessEngineConfiguration()
+        return shard.getProcessEngine().getProcessEngineConfiguration()
                 .getProcessDiagramGenerator()
                 .generateDiagram(
                         bpmnModel,
@@ -227,6 +513,7 @@ public class ProcessService {
         vo.setStartTime(pi.getStartTime());
         vo.setSuspended(pi.isSuspended());
         vo.setEnded(pi.isEnded());
+        vo.setTenantId(StringUtils.defaultIfEmpty(pi.getTenantId(), null));
         return vo;
     }
 
@@ -243,14 +530,34 @@ public class ProcessService {
         vo.setName(hpi.getName());
         vo.setStartUserId(hpi.getStartUserId());
         vo.setStartTime(hpi.getStartTime());
+        vo.setEndTime(hpi.getEndTime());
         vo.setEnded(hpi.getEndTime() != null);
+        vo.setTenantId(StringUtils.defaultIfEmpty(hpi.getTenantId(), null));
+        return vo;
+    }
+
+    /**
+     * 转换为已归档流程实例 VO
+     */
+    private ProcessInstanceVO convertToArchivedProcessInstanceVO(ArchivedInstance archived) {
+        ProcessInstanceVO vo = new ProcessInstanceVO();
+        vo.setId(archived.getId());
+        vo.setProcessDefinitionId(archived.getProcessDefinitionId());
+        vo.setProcessDefinitionKey(archived.getProcessDefinitionKey());
+        vo.setProcessDefinitionName(archived.getProcessDefinitionName());
+        vo.setBusinessKey(archived.getBusinessKey());
+        vo.setName(archived.getName());
+        vo.setStartUserId(archived.getStartUserId());
+        vo.setStartTime(archived.getStartTime());
+        vo.setEndTime(archived.getEndTime());
+        vo.setEnded(true);
         return vo;
     }
 
     /**
-     * 转换为任务 VO
+     * 转换为任务 VO，待办列表和待办变更推送共用
      */
-    private TaskVO convertToTaskVO(Task task) {
+    public static TaskVO convertToTaskVO(Task task) {
         TaskVO vo = new TaskVO();
         vo.setId(task.getId());
         vo.setName(task.getName());
@@ -262,6 +569,7 @@ public class ProcessService {
         vo.setDueDate(task.getDueDate());
         vo.setPriority(task.getPriority());
         vo.setTaskDefinitionKey(task.getTaskDefinitionKey());
+        vo.setTenantId(StringUtils.defaultIfEmpty(task.getTenantId(), null));
         return vo;
     }
 }
@@ -0,0 +1,253 @@
+package com.process.service;
+
+import com.process.dto.ProcessStartRequest;
+import com.process.shard.EngineShard;
+import com.process.shard.EngineShardRegistry;
+import com.process.vo.ProcessInstanceVO;
+import com.process.vo.ProcessStartStatusVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 异步批量启动流程服务
+ * <p>
+ * 请求先进入有界内存队列，由工作线程按批次取出并在同一事务中启动；
+ * 队列满时拒绝提交，由调用方稍后重试。启动结果按业务 Key 保存，供调用方轮询。
+ * 状态对象发布后不再修改，每次状态变化替换为新的对象。
+ * <p>
+ * 关闭时不再接收新请求，工作线程在 shutdown-timeout 内继续处理队列中已接收的请求，
+ * 超时仍未处理的请求标记为失败，调用方可按业务 Key 重新提交。
+ */
+@Service
+public class ProcessStartQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessStartQueueService.class);
+
+    @Autowired
+    private ProcessService processService;
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    @Value("${process.async-start.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${process.async-start.workers:4}")
+    private int workers;
+
+    @Value("${process.async-start.batch-size:100}")
+    private int batchSize;
+
+    @Value("${process.async-start.status-capacity:100000}")
+    private int statusCapacity;
+
+    /**
+     * 关闭时处理剩余请求的最长时间（毫秒）
+     */
+    @Value("${process.async-start.shutdown-timeout:30000}")
+    private long shutdownTimeout;
+
+    private BlockingQueue<ProcessStartRequest> queue;
+
+    private ExecutorService executor;
+
+    private Map<String, ProcessStartStatusVO> statuses;
+
+    private volatile boolean running;
+
+    /**
+     * 关闭后工作线程继续处理剩余请求的截止时间（System.nanoTime）
+     */
+    private volatile long drainDeadline;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        statuses = Collections.synchronizedMap(new LinkedHashMap<String, ProcessStartStatusVO>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProcessStartStatusVO> eldest) {
+                return size() > statusCapacity;
+            }
+        });
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "process-start-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+        log.info("异步启动队列已就绪 - 容量: {}, 工作线程: {}, 批次大小: {}", queueCapacity, workers, batchSize);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        synchronized (this) {
+            drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeout);
+            running = false;
+        }
+        executor.shutdown();
+        // 工作线程处理完当前批次后才检查截止时间，多等一段时间让其正常退出，仍未退出时再中断
+        if (!executor.awaitTermination(shutdownTimeout + 10000, TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        List<ProcessStartRequest> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            remaining.forEach(request -> markFailed(request, "服务关闭，请求未处理，请重新提交"));
+            log.warn("异步启动队列关闭时仍有 {} 个请求未处理，已标记为失败", remaining.size());
+        }
+    }
+
+    /**
+     * 提交一批启动请求
+     * <p>
+     * 状态按业务 Key 保存，同一个 Key 同时只能有一个未完成的请求，否则后一个的结果会覆盖前一个。
+     *
+     * @return 队列剩余容量不足以容纳整批或服务正在关闭时返回 false，整批都不入队
+     * @throws IllegalArgumentException 批次中有重复的业务 Key，整批都不入队
+     * @throws IllegalStateException    批次中的业务 Key 仍在排队或启动中，整批都不入队
+     */
+    public synchronized boolean submit(List<ProcessStartRequest> requests) {
+        Set<String> businessKeys = new HashSet<>(requests.size() * 2);
+        for (ProcessStartRequest request : requests) {
+            if (!businessKeys.add(request.getBusinessKey())) {
+                throw new IllegalArgumentException("业务Key在批次中重复: " + request.getBusinessKey());
+            }
+            ProcessStartStatusVO status = statuses.get(request.getBusinessKey());
+            if (status != null && ProcessStartStatusVO.PENDING.equals(status.getStatus())) {
+                throw new IllegalStateException("业务Key仍在排队或启动中: " + request.getBusinessKey());
+            }
+        }
+        if (!running || queue.remainingCapacity() < requests.size()) {
+            return false;
+        }
+        Date now = new Date();
+        for (ProcessStartRequest request : requests) {
+            statuses.put(request.getBusinessKey(), status(request, ProcessStartStatusVO.PENDING, now));
+            queue.add(request);
+        }
+        return true;
+    }
+
+    /**
+     * 按业务 Key 查询启动状态
+     */
+    public ProcessStartStatusVO getStatus(String businessKey) {
+        return statuses.get(businessKey);
+    }
+
+    /**
+     * 当前排队中的请求数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void work() {
+        List<ProcessStartRequest> batch = new ArrayList<>(batchSize);
+        // 关闭后继续处理已接收的请求，直到队列为空或超过截止时间
+        while (running || (!queue.isEmpty() && System.nanoTime() - drainDeadline < 0)) {
+            try {
+                ProcessStartRequest first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                startBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("异步启动流程出错", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 按分片分组，每组在一个事务中启动；某组失败时该组回滚并逐条单独重试
+     */
+    private void startBatch(List<ProcessStartRequest> batch) {
+        Map<EngineShard, List<ProcessStartRequest>> byShard = batch.stream().collect(Collectors.groupingBy(
+                request -> engineShards.forTenant(request.getTenantId()), LinkedHashMap::new, Collectors.toList()));
+        byShard.values().forEach(this::startGroup);
+    }
+
+    private void startGroup(List<ProcessStartRequest> group) {
+        try {
+            List<ProcessInstanceVO> instances = processService.startProcesses(group);
+            for (int i = 0; i < group.size(); i++) {
+                markStarted(group.get(i), instances.get(i));
+            }
+        } catch (Exception e) {
+            log.warn("批量启动流程失败，改为逐条重试 - 批次大小: {}, 原因: {}", group.size(), e.getMessage());
+            for (ProcessStartRequest request : group) {
+                try {
+                    markStarted(request, processService.startProcess(request));
+                } catch (Exception ex) {
+                    markFailed(request, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private void markStarted(ProcessStartRequest request, ProcessInstanceVO instance) {
+        ProcessStartStatusVO status = finished(request, ProcessStartStatusVO.STARTED);
+        status.setProcessInstanceId(instance.getId());
+        statuses.put(request.getBusinessKey(), status);
+    }
+
+    private void markFailed(ProcessStartRequest request, String message) {
+        ProcessStartStatusVO status = finished(request, ProcessStartStatusVO.FAILED);
+        status.setMessage(message);
+        statuses.put(request.getBusinessKey(), status);
+    }
+
+    /**
+     * 新建完成状态，沿用排队时记录的提交时间；写入 statuses 后不再修改，查询线程读到的总是完整的状态
+     */
+    private ProcessStartStatusVO finished(ProcessStartRequest request, String state) {
+        ProcessStartStatusVO pending = statuses.get(request.getBusinessKey());
+        ProcessStartStatusVO status = status(request, state, pending != null ? pending.getSubmitTime() : null);
+        status.setFinishTime(new Date());
+        return status;
+    }
+
+    private static ProcessStartStatusVO status(ProcessStartRequest request, String state, Date submitTime) {
+        ProcessStartStatusVO status = new ProcessStartStatusVO();
+        status.setBusinessKey(request.getBusinessKey());
+        status.setStatus(state);
+        status.setSubmitTime(submitTime);
+        return status;
+    }
+}
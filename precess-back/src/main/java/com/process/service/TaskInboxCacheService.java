@@ -0,0 +1,354 @@
+package com.process.service;
+
+import com.process.vo.TaskVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 按办理人缓存的待办列表
+ * <p>
+ * 每个办理人在 PROC_INBOX_VERSION 中有一个版本号，引擎事务提交后在独立的短事务中为涉及的办理人各加一，
+ * 不在引擎事务中持有版本号的行锁，同一办理人的并发事务不会因此串行。
+ * 读取时先查版本号（主键查询），与缓存一致才返回缓存，否则重新查询待办列表；
+ * 因此任一节点提交的变更都会让其他节点的缓存失效。校验通过后 version-check-interval 内的读取不再查版本号，
+ * 其他节点的变更最多滞后这一间隔；提交到推进版本号之间的短暂窗口内同样可能读到旧列表，
+ * 推进失败时（如节点在提交后宕机）其他节点的缓存最多在 ttl 后刷新。
+ * <p>
+ * 本节点提交的变更在推进版本号后直接增量应用到缓存（版本号恰好连续时），不必重新查询。
+ * 缓存按最近访问淘汰，受办理人数量和内存预算限制；加载超过 ttl 后强制重新查询一次。
+ */
+@Service
+public class TaskInboxCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskInboxCacheService.class);
+
+    private static final String SELECT_VERSION_SQL = "SELECT VERSION FROM PROC_INBOX_VERSION WHERE ASSIGNEE = ?";
+
+    private static final String UPDATE_VERSION_SQL = "UPDATE PROC_INBOX_VERSION SET VERSION = VERSION + 1 WHERE ASSIGNEE = ?";
+
+    private static final String INSERT_VERSION_SQL = "INSERT INTO PROC_INBOX_VERSION (ASSIGNEE, VERSION) VALUES (?, 1)";
+
+    /**
+     * 单个 TaskVO 除字符串内容外的估算内存占用（对象头、字段、Date 对象）
+     */
+    private static final long TASK_OVERHEAD_BYTES = 160;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 是否启用缓存；关闭后不再维护版本号，多节点部署时所有节点需保持一致
+     */
+    @Value("${process.inbox.cache.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 最多缓存的办理人数
+     */
+    @Value("${process.inbox.cache.max-users:1000}")
+    private int maxUsers;
+
+    /**
+     * 缓存加载后的有效时间（毫秒）
+     */
+    @Value("${process.inbox.cache.ttl:300000}")
+    private long ttl;
+
+    /**
+     * 版本号校验通过后免查版本号的时间（毫秒），即其他节点变更的最大可见延迟；为 0 时每次读取都查版本号
+     */
+    @Value("${process.inbox.cache.version-check-interval:1000}")
+    private long versionCheckInterval;
+
+    /**
+     * 缓存的估算内存上限（字节）
+     */
+    @Value("${process.inbox.cache.memory-budget:67108864}")
+    private long memoryBudget;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate versionTransaction;
+
+    private final Map<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+
+    private long hits;
+
+    private long misses;
+
+    private long stale;
+
+    private long evictions;
+
+    private long deltas;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // 在引擎事务的提交回调中执行，必须开启新事务，否则会加入已提交的事务而不再提交
+        versionTransaction = new TransactionTemplate(transactionManager);
+        versionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取办理人的待办列表，缓存缺失或版本不一致时用 loader 重新查询
+     */
+    public List<TaskVO> get(String userId, Supplier<List<TaskVO>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long checkedAt = System.currentTimeMillis();
+        synchronized (cache) {
+            // 本节点的变更已增量应用到缓存，校验间隔内只可能错过其他节点的变更
+            Entry entry = cache.get(userId);
+            if (entry != null && checkedAt - entry.loadedAt < ttl && checkedAt - entry.checkedAt < versionCheckInterval) {
+                hits++;
+                return entry.tasks;
+            }
+        }
+        long version = currentVersion(userId);
+        synchronized (cache) {
+            Entry entry = cache.get(userId);
+            if (entry != null && entry.version == version && checkedAt - entry.loadedAt < ttl) {
+                entry.checkedAt = checkedAt;
+                hits++;
+                return entry.tasks;
+            }
+            misses++;
+            if (entry != null && entry.version != version) {
+                stale++;
+            }
+        }
+
+        // 版本号先于列表读取，期间若有提交，缓存的列表比版本号新，下次读取会因版本不一致重新查询
+        List<TaskVO> tasks = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        synchronized (cache) {
+            Entry existing = cache.get(userId);
+            if (existing == null || existing.version <= version) {
+                put(userId, new Entry(version, tasks, System.currentTimeMillis(), checkedAt));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * 引擎事务提交后，在一个新的短事务中推进各办理人的版本号，返回新版本号
+     * <p>
+     * 调用方按固定顺序传入办理人，避免并发事务交叉加锁。失败时丢弃本节点上这些办理人的缓存并返回空结果，
+     * 调用方不再增量更新。
+     */
+    public Map<String, Long> nextVersions(Collection<String> assignees) {
+        if (!enabled || assignees.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return versionTransaction.execute(status -> {
+                Map<String, Long> versions = new HashMap<>();
+                for (String assignee : assignees) {
+                    versions.put(assignee, nextVersion(assignee));
+                }
+                return versions;
+            });
+        } catch (RuntimeException e) {
+            log.warn("待办版本号推进失败，其他节点的缓存将在过期后刷新 - 办理人: {}", assignees, e);
+            synchronized (cache) {
+                assignees.forEach(this::remove);
+            }
+            return Collections.emptyMap();
+        }
+    }
+
+    private long nextVersion(String assignee) {
+        if (jdbcTemplate.update(UPDATE_VERSION_SQL, assignee) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_VERSION_SQL, assignee);
+            } catch (DuplicateKeyException e) {
+                // 并发事务已插入
+                jdbcTemplate.update(UPDATE_VERSION_SQL, assignee);
+            }
+        }
+        return currentVersion(assignee);
+    }
+
+    /**
+     * 事务提交后把新增或更新的任务应用到缓存，version 为 null（未推进版本号）时忽略
+     */
+    public void applyUpsert(String assignee, Long version, TaskVO task) {
+        apply(assignee, version, tasks -> {
+            tasks.removeIf(existing -> existing.getId().equals(task.getId()));
+            // 与查询一致，按创建时间倒序
+            int index = 0;
+            while (index < tasks.size() && !isBefore(tasks.get(index), task)) {
+                index++;
+            }
+            tasks.add(index, task);
+        });
+    }
+
+    /**
+     * 事务提交后从缓存中移除任务，version 为 null（未推进版本号）时忽略
+     */
+    public void applyRemove(String assignee, Long version, String taskId) {
+        apply(assignee, version, tasks -> tasks.removeIf(existing -> existing.getId().equals(taskId)));
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (cache) {
+            stats.put("enabled", enabled);
+            stats.put("size", cache.size());
+            stats.put("bytes", bytes);
+            stats.put("capacity", maxUsers);
+            stats.put("memoryBudget", memoryBudget);
+            stats.put("hits", hits);
+            stats.put("misses", misses);
+            stats.put("stale", stale);
+            stats.put("deltas", deltas);
+            stats.put("evictions", evictions);
+            stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        }
+        return stats;
+    }
+
+    private void apply(String assignee, Long version, Consumer<List<TaskVO>> change) {
+        if (!enabled || assignee == null || version == null) {
+            return;
+        }
+        synchronized (cache) {
+            Entry entry = cache.get(assignee);
+            if (entry == null || entry.version >= version) {
+                return;
+            }
+            if (entry.version != version - 1) {
+                // 中间有其他节点或并发加载的变更，无法增量更新
+                remove(assignee);
+                return;
+            }
+            List<TaskVO> tasks = new ArrayList<>(entry.tasks);
+            change.accept(tasks);
+            // 刚推进的版本号就是当前版本，视为一次校验
+            put(assignee, new Entry(version, Collections.unmodifiableList(tasks), entry.loadedAt,
+                    System.currentTimeMillis()));
+            deltas++;
+        }
+    }
+
+    private long currentVersion(String assignee) {
+        List<Long> versions = jdbcTemplate.queryForList(SELECT_VERSION_SQL, Long.class, assignee);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /**
+     * 放入缓存并按数量、内存预算淘汰最久未访问的办理人，调用方需持有 cache 锁
+     */
+    private void put(String assignee, Entry entry) {
+        if (entry.bytes > memoryBudget) {
+            remove(assignee);
+            return;
+        }
+        Entry previous = cache.put(assignee, entry);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += entry.bytes;
+
+        Iterator<Map.Entry<String, Entry>> iterator = cache.entrySet().iterator();
+        while ((cache.size() > maxUsers || bytes > memoryBudget) && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(assignee)) {
+                continue;
+            }
+            bytes -= eldest.getValue().bytes;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(String assignee) {
+        Entry removed = cache.remove(assignee);
+        if (removed != null) {
+            bytes -= removed.bytes;
+            log.debug("待办缓存失效 - 办理人: {}", assignee);
+        }
+    }
+
+    private static boolean isBefore(TaskVO existing, TaskVO task) {
+        return existing.getCreateTime() != null && task.getCreateTime() != null
+                && existing.getCreateTime().before(task.getCreateTime());
+    }
+
+    private static long estimate(List<TaskVO> tasks) {
+        long total = 64;
+        for (TaskVO task : tasks) {
+            total += TASK_OVERHEAD_BYTES + 2L * (length(task.getId()) + length(task.getName())
+                    + length(task.getDescription()) + length(task.getProcessInstanceId())
+                    + length(task.getProcessDefinitionId()) + length(task.getAssignee())
+                    + length(task.getTaskDefinitionKey()));
+        }
+        return total;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * 缓存条目，列表不可变，变更时整体替换
+     */
+    private static class Entry {
+
+        private final long version;
+
+        private final List<TaskVO> tasks;
+
+        private final long loadedAt;
+
+        private final long bytes;
+
+        /**
+         * 最近一次确认版本号一致的时间，在 cache 锁内读写
+         */
+        private long checkedAt;
+
+        Entry(long version, List<TaskVO> tasks, long loadedAt, long checkedAt) {
+            this.version = version;
+            this.tasks = tasks;
+            this.loadedAt = loadedAt;
+            this.checkedAt = checkedAt;
+            this.bytes = estimate(tasks);
+        }
+    }
+}
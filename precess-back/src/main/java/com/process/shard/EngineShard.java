@@ -0,0 +1,101 @@
+package com.process.shard;
+
+import org.flowable.engine.HistoryService;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.ProcessEngine;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.TaskService;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 一个分片：独立的流程引擎及其数据源上的事务管理器、业务表 Mapper
+ */
+public class EngineShard {
+
+    public static final String DEFAULT = "default";
+
+    private final String name;
+
+    private final ProcessEngine processEngine;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final Function<Class<?>, Object> mappers;
+
+    private final TransactionTemplate readWrite;
+
+    private final TransactionTemplate readOnly;
+
+    public EngineShard(String name, ProcessEngine processEngine, PlatformTransactionManager transactionManager,
+                       Function<Class<?>, Object> mappers) {
+        this.name = name;
+        this.processEngine = processEngine;
+        this.transactionManager = transactionManager;
+        this.mappers = mappers;
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isDefault() {
+        return DEFAULT.equals(name);
+    }
+
+    public PlatformTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    /**
+     * 本分片库上的业务表 Mapper（发件箱、归档、待办分页），在本分片的事务中调用时加入该事务
+     */
+    public <T> T getMapper(Class<T> type) {
+        return type.cast(mappers.apply(type));
+    }
+
+    /**
+     * 在本分片的读写事务中执行；已在本分片的事务中时加入该事务
+     */
+    public <T> T execute(Supplier<T> action) {
+        return readWrite.execute(status -> action.get());
+    }
+
+    /**
+     * 在本分片的只读事务中执行
+     */
+    public <T> T query(Supplier<T> action) {
+        return readOnly.execute(status -> action.get());
+    }
+
+    public ProcessEngine getProcessEngine() {
+        return processEngine;
+    }
+
+    public RepositoryService getRepositoryService() {
+        return processEngine.getRepositoryService();
+    }
+
+    public RuntimeService getRuntimeService() {
+        return processEngine.getRuntimeService();
+    }
+
+    public TaskService getTaskService() {
+        return processEngine.getTaskService();
+    }
+
+    public HistoryService getHistoryService() {
+        return processEngine.getHistoryService();
+    }
+
+    public ManagementService getManagementService() {
+        return processEngine.getManagementService();
+    }
+}
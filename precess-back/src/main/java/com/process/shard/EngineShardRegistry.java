@@ -0,0 +1,307 @@
+package com.process.shard;
+
+import com.process.config.FlowableConfig;
+import com.process.config.ShardingProperties;
+import com.process.listener.ProcessMetricsListener;
+import com.process.mapper.ArchiveMapper;
+import com.process.mapper.OutboxMapper;
+import com.process.mapper.TaskInboxMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.flowable.common.engine.impl.context.Context;
+import org.flowable.common.engine.impl.interceptor.CommandContext;
+import org.flowable.common.engine.impl.persistence.StrongUuidGenerator;
+import org.flowable.engine.ProcessEngine;
+import org.flowable.engine.ProcessEngineConfiguration;
+import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.flowable.engine.impl.util.CommandContextUtil;
+import org.flowable.spring.ProcessEngineFactoryBean;
+import org.flowable.spring.SpringProcessEngineConfiguration;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 分片注册表
+ * <p>
+ * 默认分片即 Spring Boot 创建的引擎；启用 process.sharding 时为每个额外分片创建独立的连接池、事务管理器和流程引擎
+ * （各自的异步执行器、流程定义缓存），启动时建引擎表和业务表（spring.sql.init 的脚本，分片与默认库使用同一种数据库），
+ * 并部署 processes/ 下的流程定义。额外分片的引擎使用 UUID 作为 ID，不同分片的任务、流程实例 ID 不会重复。
+ * <p>
+ * 发件箱、归档表按分片存放：流程委托写入所在分片库中的发件箱，与该分片的引擎事务一起提交，投递器轮询所有分片；
+ * 归档任务逐个分片归档。待办缓存、待办推送和流程定义缓存只覆盖默认分片；额外分片的查询直接访问其引擎。
+ */
+@Component
+public class EngineShardRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineShardRegistry.class);
+
+    private static final String[] PROCESS_RESOURCES = {"classpath*:/processes/**/*.bpmn20.xml", "classpath*:/processes/**/*.bpmn"};
+
+    @Autowired
+    private ShardingProperties properties;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private FlowableConfig flowableConfig;
+
+    @Autowired
+    private ProcessMetricsListener processMetricsListener;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.sql.init.mode:embedded}")
+    private String schemaInitMode;
+
+    @Value("${spring.sql.init.schema-locations:}")
+    private String[] schemaLocations;
+
+    private final Map<String, EngineShard> shards = new LinkedHashMap<>();
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+    private ExecutorService fanOutExecutor;
+
+    @PostConstruct
+    public void init() throws Exception {
+        shards.put(EngineShard.DEFAULT, new EngineShard(EngineShard.DEFAULT, processEngine, transactionManager,
+                applicationContext::getBean));
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (Map.Entry<String, ShardingProperties.Shard> entry : properties.getShards().entrySet()) {
+            if (EngineShard.DEFAULT.equals(entry.getKey())) {
+                throw new IllegalStateException("分片名 default 保留给 spring.datasource 上的默认引擎");
+            }
+            shards.put(entry.getKey(), buildShard(entry.getKey(), entry.getValue()));
+        }
+        properties.getTenants().forEach((tenantId, shard) -> {
+            if (!shards.containsKey(shard)) {
+                throw new IllegalStateException("租户 " + tenantId + " 映射到不存在的分片: " + shard);
+            }
+        });
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        fanOutExecutor = Executors.newFixedThreadPool(properties.getFanOutThreads(), r -> {
+            Thread thread = new Thread(r, "shard-fan-out-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("多租户分片已启用 - 分片: {}, 租户映射: {}", shards.keySet(), properties.getTenants());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+        for (EngineShard shard : shards.values()) {
+            if (!shard.isDefault()) {
+                shard.getProcessEngine().close();
+            }
+        }
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    /**
+     * 租户所在的分片，未映射的租户和空租户使用默认分片
+     */
+    public EngineShard forTenant(String tenantId) {
+        if (StringUtils.isNotBlank(tenantId)) {
+            String shard = properties.getTenants().get(tenantId);
+            if (shard != null) {
+                return shards.get(shard);
+            }
+        }
+        return getDefault();
+    }
+
+    public EngineShard getDefault() {
+        return shards.get(EngineShard.DEFAULT);
+    }
+
+    /**
+     * 当前线程正在执行的引擎命令所属的分片（在流程委托、监听器中调用），不在引擎命令中时返回默认分片
+     */
+    public EngineShard current() {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext != null) {
+            ProcessEngineConfigurationImpl configuration = CommandContextUtil.getProcessEngineConfiguration(commandContext);
+            for (EngineShard shard : shards.values()) {
+                if (shard.getProcessEngine().getProcessEngineConfiguration() == configuration) {
+                    return shard;
+                }
+            }
+        }
+        return getDefault();
+    }
+
+    public Collection<EngineShard> getShards() {
+        return Collections.unmodifiableCollection(shards.values());
+    }
+
+    /**
+     * 在所有分片上执行查询并合并结果
+     * <p>
+     * 默认分片在调用线程中执行（可加入调用方的事务、使用本地缓存），其他分片并行执行；
+     * 任一分片失败或超过 fan-out-timeout 时整体失败。
+     */
+    public <T> List<T> fanOut(Function<EngineShard, List<T>> query, Comparator<? super T> order) {
+        if (shards.size() == 1) {
+            return query.apply(getDefault());
+        }
+        Map<String, Future<List<T>>> futures = new LinkedHashMap<>();
+        try {
+            for (EngineShard shard : shards.values()) {
+                if (!shard.isDefault()) {
+                    futures.put(shard.getName(), fanOutExecutor.submit(() -> query.apply(shard)));
+                }
+            }
+            List<T> merged = new ArrayList<>(query.apply(getDefault()));
+            long deadline = System.nanoTime() + properties.getFanOutTimeout().toNanos();
+            for (Map.Entry<String, Future<List<T>>> entry : futures.entrySet()) {
+                merged.addAll(await(entry.getKey(), entry.getValue(), deadline));
+            }
+            merged.sort(order);
+            return merged;
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static <T> List<T> await(String shard, Future<List<T>> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("分片 " + shard + " 查询超时");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("分片 " + shard + " 查询失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("分片 " + shard + " 查询被中断");
+        }
+    }
+
+    private EngineShard buildShard(String name, ShardingProperties.Shard shard) throws Exception {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + name);
+        dataSource.setDriverClassName(shard.getDriverClassName());
+        dataSource.setJdbcUrl(shard.getUrl());
+        dataSource.setUsername(shard.getUsername());
+        dataSource.setPassword(shard.getPassword());
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        shard.getDataSourceProperties().forEach(dataSource::addDataSourceProperty);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        dataSources.add(dataSource);
+        DataSourceTransactionManager shardTransactionManager = new DataSourceTransactionManager(dataSource);
+        initSchema(dataSource);
+
+        ProcessEngineConfigurationImpl defaultConfiguration =
+                (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+        SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+        configuration.setEngineName("shard-" + name);
+        configuration.setDataSource(dataSource);
+        configuration.setTransactionManager(shardTransactionManager);
+        configuration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE);
+        configuration.setIdGenerator(new StrongUuidGenerator());
+        configuration.setHistoryLevel(defaultConfiguration.getHistoryLevel());
+        configuration.setAsyncExecutorActivate(defaultConfiguration.isAsyncExecutorActivate());
+        configuration.setDeploymentResources(processResources());
+        flowableConfig.applyEngineSettings(configuration);
+        // 只注册指标监听；待办缓存、流程定义缓存的监听只对应默认分片的数据
+        configuration.setEventListeners(Collections.singletonList(processMetricsListener));
+
+        ProcessEngineFactoryBean factoryBean = new ProcessEngineFactoryBean();
+        factoryBean.setProcessEngineConfiguration(configuration);
+        factoryBean.setApplicationContext(applicationContext);
+        ProcessEngine engine = factoryBean.getObject();
+        // 默认引擎由 Spring 的生命周期启动；额外分片不是 Bean，需要手动启动：启动异步执行器，并按重复过滤部署 processes/
+        configuration.start();
+        log.info("分片引擎已启动 - 分片: {}, 地址: {}", name, shard.getUrl());
+        return new EngineShard(name, engine, shardTransactionManager, mappers(name, dataSource)::getMapper);
+    }
+
+    /**
+     * 按 spring.sql.init 的脚本在分片库上建业务表（脚本可重复执行）
+     */
+    private void initSchema(DataSource dataSource) {
+        if ("never".equalsIgnoreCase(schemaInitMode) || schemaLocations.length == 0) {
+            return;
+        }
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        for (String location : schemaLocations) {
+            populator.addScript(applicationContext.getResource(location));
+        }
+        DatabasePopulatorUtils.execute(populator, dataSource);
+    }
+
+    /**
+     * 分片库上的业务表 Mapper，由 Spring 管理连接，在分片的引擎事务中调用时使用该事务的连接
+     */
+    private static SqlSessionTemplate mappers(String name, DataSource dataSource) {
+        Configuration configuration = new Configuration(
+                new Environment("shard-" + name, new SpringManagedTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(OutboxMapper.class);
+        configuration.addMapper(ArchiveMapper.class);
+        configuration.addMapper(TaskInboxMapper.class);
+        return new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration));
+    }
+
+    private Resource[] processResources() {
+        List<Resource> resources = new ArrayList<>();
+        try {
+            for (String pattern : PROCESS_RESOURCES) {
+                Collections.addAll(resources, applicationContext.getResources(pattern));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return resources.toArray(new Resource[0]);
+    }
+}
@@ -0,0 +1,238 @@
+package com.process.variable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.flowable.common.engine.api.FlowableException;
+import org.flowable.common.engine.api.FlowableIllegalArgumentException;
+import org.flowable.variable.api.types.ValueFields;
+import org.flowable.variable.api.types.VariableType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 结构化流程变量类型
+ * <p>
+ * 只包含 Map（字符串键）、List、字符串、布尔和数字的变量（即请求 JSON 反序列化得到的结构）不再走 Java 序列化：
+ * <ul>
+ *     <li>JSON 文本不超过 inlineLimit 个字符时直接存入变量表的 TEXT_ 列，不产生 ACT_GE_BYTEARRAY 记录；</li>
+ *     <li>更大的变量以 Smile（二进制 JSON）格式存入 ACT_GE_BYTEARRAY，超过 maxSize 字节时拒绝写入。</li>
+ * </ul>
+ * 引擎只在网关、委托等读取该变量时才调用 getValue 反序列化，且同一命令内只反序列化一次；
+ * 字节内容也只在读取时才从 ACT_GE_BYTEARRAY 加载。读取得到的 Map/List 修改后需重新 setVariable 才会保存。
+ */
+public class CompactJsonType implements VariableType {
+
+    public static final String TYPE_NAME = "compactJson";
+
+    private static final String FORMAT_JSON = "json";
+
+    private static final String FORMAT_SMILE = "smile";
+
+    private static final int MAX_DEPTH = 64;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    private final boolean enabled;
+
+    private final int inlineLimit;
+
+    private final int maxSize;
+
+    public CompactJsonType(boolean enabled, int inlineLimit, int maxSize) {
+        this.enabled = enabled;
+        this.inlineLimit = inlineLimit;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public boolean isCachable() {
+        return true;
+    }
+
+    @Override
+    public boolean isAbleToStore(Object value) {
+        return enabled && (value instanceof Map || value instanceof List) && isJsonCompatible(value, 0);
+    }
+
+    @Override
+    public void setValue(Object value, ValueFields valueFields) {
+        valueFields.setCachedValue(value);
+        if (value == null) {
+            valueFields.setTextValue(null);
+            valueFields.setTextValue2(null);
+            valueFields.setBytes(null);
+            return;
+        }
+
+        String json = toInlineJson(value);
+        if (json != null) {
+            valueFields.setTextValue(json);
+            valueFields.setTextValue2(FORMAT_JSON);
+            valueFields.setBytes(null);
+        } else {
+            valueFields.setTextValue(null);
+            valueFields.setTextValue2(FORMAT_SMILE);
+            valueFields.setBytes(toSmile(value, valueFields.getName()));
+        }
+    }
+
+    @Override
+    public Object getValue(ValueFields valueFields) {
+        try {
+            if (FORMAT_JSON.equals(valueFields.getTextValue2())) {
+                return jsonMapper.readValue(valueFields.getTextValue(), Object.class);
+            }
+            if (FORMAT_SMILE.equals(valueFields.getTextValue2())) {
+                byte[] bytes = valueFields.getBytes();
+                return bytes != null ? smileMapper.readValue(bytes, Object.class) : null;
+            }
+            return null;
+        } catch (IOException e) {
+            throw new FlowableException("读取流程变量 " + valueFields.getName() + " 失败", e);
+        }
+    }
+
+    /**
+     * 序列化为 JSON 文本，超过 inlineLimit 时立即停止并返回 null
+     */
+    public String toInlineJson(Object value) {
+        LimitedWriter writer = new LimitedWriter(inlineLimit);
+        try {
+            jsonMapper.writeValue(writer, value);
+            return writer.toString();
+        } catch (LimitExceededException e) {
+            return null;
+        } catch (IOException e) {
+            throw new FlowableException("序列化流程变量失败", e);
+        }
+    }
+
+    /**
+     * 序列化为 Smile 二进制，超过 maxSize 字节时拒绝
+     */
+    public byte[] toSmile(Object value, String variableName) {
+        LimitedOutputStream out = new LimitedOutputStream(maxSize);
+        try {
+            smileMapper.writeValue(out, value);
+            return out.toByteArray();
+        } catch (LimitExceededException e) {
+            throw new FlowableIllegalArgumentException("流程变量 " + variableName + " 超过大小限制 " + maxSize + " 字节");
+        } catch (IOException e) {
+            throw new FlowableException("序列化流程变量 " + variableName + " 失败", e);
+        }
+    }
+
+    /**
+     * 从 Smile 二进制还原
+     */
+    public Object fromSmile(byte[] bytes) throws IOException {
+        return smileMapper.readValue(bytes, Object.class);
+    }
+
+    /**
+     * 只接受 JSON 往返后类型不变的值，其余（日期、自定义对象等）仍交给 Flowable 默认类型
+     */
+    private static boolean isJsonCompatible(Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            return false;
+        }
+        if (value == null || value instanceof String || value instanceof Boolean
+                || value instanceof Integer || value instanceof Long || value instanceof Double) {
+            return true;
+        }
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!(entry.getKey() instanceof String) || !isJsonCompatible(entry.getValue(), depth + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                if (!isJsonCompatible(item, depth + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static class LimitExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static class LimitedWriter extends Writer {
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        private final int limit;
+
+        LimitedWriter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            if (buffer.length() + length > limit) {
+                throw new LimitExceededException();
+            }
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+
+    private static class LimitedOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private final int limit;
+
+        LimitedOutputStream(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (buffer.size() + length > limit) {
+                throw new LimitExceededException();
+            }
+            buffer.write(bytes, offset, length);
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+}
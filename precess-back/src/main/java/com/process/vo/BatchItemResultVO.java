@@ -0,0 +1,44 @@
+package com.process.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量操作单项结果 VO
+ */
+@Data
+public class BatchItemResultVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 业务对象 ID（如任务 ID）
+     */
+    private String id;
+    
+    /**
+     * 是否成功
+     */
+    private Boolean success;
+    
+    /**
+     * 失败原因
+     */
+    private String message;
+    
+    public static BatchItemResultVO success(String id) {
+        BatchItemResultVO vo = new BatchItemResultVO();
+        vo.setId(id);
+        vo.setSuccess(true);
+        return vo;
+    }
+    
+    public static BatchItemResultVO failure(String id, String message) {
+        BatchItemResultVO vo = new BatchItemResultVO();
+        vo.setId(id);
+        vo.setSuccess(false);
+        vo.setMessage(message);
+        return vo;
+    }
+}
@@ -0,0 +1,45 @@
+package com.process.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量操作结果 VO
+ */
+@Data
+public class BatchResultVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 总数
+     */
+    private Integer total;
+    
+    /**
+     * 成功数
+     */
+    private Integer successCount;
+    
+    /**
+     * 失败数
+     */
+    private Integer failureCount;
+    
+    /**
+     * 耗时（毫秒）
+     */
+    private Long costMillis;
+    
+    /**
+     * 吞吐量（条/秒）
+     */
+    private Double throughput;
+    
+    /**
+     * 逐项结果，顺序与请求一致
+     */
+    private List<BatchItemResultVO> items;
+}
@@ -0,0 +1,30 @@
+package com.process.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果 VO
+ */
+@Data
+public class CursorPageVO<T> implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+    
+    /**
+     * 下一页游标，没有更多数据时为空
+     */
+    private String nextCursor;
+    
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+}
@@ -0,0 +1,84 @@
+package com.process.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 暂存部署 VO
+ */
+@Data
+public class DeploymentStageVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String VALIDATING = "VALIDATING";
+
+    public static final String VALID = "VALID";
+
+    public static final String INVALID = "INVALID";
+
+    public static final String DEPLOYING = "DEPLOYING";
+
+    public static final String DEPLOYED = "DEPLOYED";
+
+    public static final String FAILED = "FAILED";
+
+    /**
+     * 暂存 ID
+     */
+    private String stagingId;
+
+    /**
+     * 资源文件名
+     */
+    private String resourceName;
+
+    /**
+     * 资源内容的 SHA-256
+     */
+    private String contentHash;
+
+    /**
+     * 状态：VALIDATING、VALID、INVALID、DEPLOYING、DEPLOYED、FAILED
+     */
+    private String status;
+
+    /**
+     * 校验通过后是否自动部署
+     */
+    private Boolean autoDeploy;
+
+    /**
+     * 校验错误（含元素 ID 和行号）
+     */
+    private List<String> errors = new ArrayList<>();
+
+    /**
+     * 校验警告，不阻止部署
+     */
+    private List<String> warnings = new ArrayList<>();
+
+    /**
+     * 部署 ID
+     */
+    private String deploymentId;
+
+    /**
+     * 内容与已有部署相同，未重新部署，deploymentId 为已有部署
+     */
+    private Boolean duplicate;
+
+    /**
+     * 暂存时间
+     */
+    private Date createTime;
+
+    /**
+     * 完成时间（校验失败、部署完成或失败）
+     */
+    private Date finishTime;
+}
@@ -0,0 +1,50 @@
+package com.process.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 流程图元素 VO（节点位置或连线路径）
+ */
+@Data
+public class DiagramElementVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 元素 ID（活动 ID 或连线 ID）
+     */
+    private String id;
+    
+    /**
+     * 元素名称
+     */
+    private String name;
+    
+    /**
+     * 节点左上角横坐标
+     */
+    private Double x;
+    
+    /**
+     * 节点左上角纵坐标
+     */
+    private Double y;
+    
+    /**
+     * 节点宽度
+     */
+    private Double width;
+    
+    /**
+     * 节点高度
+     */
+    private Double height;
+    
+    /**
+     * 连线拐点坐标，每项为 [x, y]
+     */
+    private List<double[]> waypoints;
+}
@@ -52,4 +52,9 @@ public class ProcessDefinitionVO implements Serializable {
      * 是否挂起
      */
     private Boolean suspended;
+    
+    /**
+     * 所在分片
+     */
+    private String shard;
 }
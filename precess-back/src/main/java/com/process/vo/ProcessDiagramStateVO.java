@@ -0,0 +1,57 @@
+package com.process.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 流程实例运行状态图 VO
+ * <p>
+ * 底图为流程定义的缓存 PNG，高亮元素坐标与底图像素一一对应。
+ */
+@Data
+public class ProcessDiagramStateVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 流程实例 ID
+     */
+    private String processInstanceId;
+    
+    /**
+     * 流程定义 ID
+     */
+    private String processDefinitionId;
+    
+    /**
+     * 底图地址
+     */
+    private String diagramUrl;
+    
+    /**
+     * 底图宽度
+     */
+    private Integer width;
+    
+    /**
+     * 底图高度
+     */
+    private Integer height;
+    
+    /**
+     * 当前活动节点
+     */
+    private List<DiagramElementVO> activeActivities;
+    
+    /**
+     * 已完成节点
+     */
+    private List<DiagramElementVO> completedActivities;
+    
+    /**
+     * 已经过的连线
+     */
+    private List<DiagramElementVO> takenFlows;
+}
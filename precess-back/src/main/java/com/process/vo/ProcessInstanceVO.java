@@ -53,6 +53,11 @@ public class ProcessInstanceVO implements Serializable {
      */
     private Date startTime;
     
+    /**
+     * 结束时间
+     */
+    private Date endTime;
+    
     /**
      * 是否挂起
      */
@@ -62,4 +67,9 @@ public class ProcessInstanceVO implements Serializable {
      * 是否结束
      */
     private Boolean ended;
+    
+    /**
+     * 租户 ID
+     */
+    private String tenantId;
 }
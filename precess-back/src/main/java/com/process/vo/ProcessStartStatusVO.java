@@ -0,0 +1,51 @@
+package com.process.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 异步启动流程状态 VO
+ */
+@Data
+public class ProcessStartStatusVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final String PENDING = "PENDING";
+    
+    public static final String STARTED = "STARTED";
+    
+    public static final String FAILED = "FAILED";
+    
+    /**
+     * 业务 Key
+     */
+    private String businessKey;
+    
+    /**
+     * 状态（PENDING/STARTED/FAILED）
+     */
+    private String status;
+    
+    /**
+     * 流程实例 ID
+     */
+    private String processInstanceId;
+    
+    /**
+     * 失败原因
+     */
+    private String message;
+    
+    /**
+     * 提交时间
+     */
+    private Date submitTime;
+    
+    /**
+     * 完成时间
+     */
+    private Date finishTime;
+}
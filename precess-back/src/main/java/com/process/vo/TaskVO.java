@@ -62,4 +62,9 @@ public class TaskVO implements Serializable {
      * 任务定义 Key
      */
     private String taskDefinitionKey;
+    
+    /**
+     * 租户 ID
+     */
+    private String tenantId;
 }
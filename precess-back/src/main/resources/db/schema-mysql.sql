@@ -0,0 +1,56 @@
+-- 事务性发件箱：流程委托在引擎事务中写入，由 OutboxDispatcher 异步投递
+CREATE TABLE IF NOT EXISTS PROC_OUTBOX (
+    ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    MESSAGE_KEY VARCHAR(255) NOT NULL,
+    TOPIC VARCHAR(100) NOT NULL,
+    PAYLOAD LONGTEXT,
+    STATUS VARCHAR(20) NOT NULL,
+    ATTEMPTS INT NOT NULL DEFAULT 0,
+    NEXT_ATTEMPT_TIME DATETIME(3) NOT NULL,
+    LOCK_OWNER VARCHAR(100),
+    LOCK_TIME DATETIME(3),
+    LAST_ERROR VARCHAR(1000),
+    CREATE_TIME DATETIME(3) NOT NULL,
+    UPDATE_TIME DATETIME(3) NOT NULL,
+    UNIQUE KEY UK_PROC_OUTBOX_KEY (MESSAGE_KEY),
+    KEY IDX_PROC_OUTBOX_DUE (STATUS, NEXT_ATTEMPT_TIME)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 只读副本延迟检测：主库定时写入心跳时间（毫秒），与副本上的值比对
+CREATE TABLE IF NOT EXISTS PROC_REPLICA_HEARTBEAT (
+    ID INT PRIMARY KEY,
+    BEAT_TIME BIGINT NOT NULL
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 待办缓存版本号：办理人的任务变更提交后在独立的短事务中加一，各节点比对后决定是否重新查询
+CREATE TABLE IF NOT EXISTS PROC_INBOX_VERSION (
+    ASSIGNEE VARCHAR(255) PRIMARY KEY,
+    VERSION BIGINT NOT NULL
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 流程实例归档：结束超过保留期的实例从 ACT_HI_* 移到这里，明细为 gzip 压缩的 JSON
+CREATE TABLE IF NOT EXISTS PROC_ARCHIVE_INSTANCE (
+    ID VARCHAR(64) PRIMARY KEY,
+    PROC_DEF_ID VARCHAR(64),
+    PROC_DEF_KEY VARCHAR(255),
+    PROC_DEF_NAME VARCHAR(255),
+    BUSINESS_KEY VARCHAR(255),
+    NAME VARCHAR(255),
+    START_USER_ID VARCHAR(255),
+    START_TIME DATETIME(3),
+    END_TIME DATETIME(3),
+    ARCHIVE_TIME DATETIME(3) NOT NULL,
+    PAYLOAD LONGBLOB,
+    KEY IDX_PROC_ARCHIVE_END (END_TIME)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 幂等键：成功结果按键保存到过期时间，重复请求直接返回；处理中的键在 processing-timeout 后过期；REQUEST_HASH 为请求体摘要
+CREATE TABLE IF NOT EXISTS PROC_IDEMPOTENCY (
+    IDEMPOTENCY_KEY VARCHAR(255) PRIMARY KEY,
+    REQUEST_HASH VARCHAR(64) NOT NULL,
+    STATUS VARCHAR(20) NOT NULL,
+    RESPONSE TEXT,
+    CREATE_TIME DATETIME(3) NOT NULL,
+    EXPIRE_TIME DATETIME(3) NOT NULL,
+    KEY IDX_PROC_IDEMPOTENCY_EXPIRE (EXPIRE_TIME)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
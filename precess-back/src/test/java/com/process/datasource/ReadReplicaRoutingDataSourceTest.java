@@ -0,0 +1,160 @@
+package com.process.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 两个独立的 H2 库分别充当主库和副本，按连接池计数验证路由和副本延迟回退
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private static final String HEARTBEAT_DDL =
+            "CREATE TABLE PROC_REPLICA_HEARTBEAT (ID INT PRIMARY KEY, BEAT_TIME BIGINT NOT NULL)";
+
+    private CountingDataSource primary;
+
+    private CountingDataSource replica;
+
+    private ReplicaLagMonitor lagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        primary = new CountingDataSource(h2("primary"));
+        replica = new CountingDataSource(h2("replica"));
+        new JdbcTemplate(primary).execute(HEARTBEAT_DDL);
+        new JdbcTemplate(replica).execute(HEARTBEAT_DDL);
+        primary.count.set(0);
+        replica.count.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (lagMonitor != null) {
+            lagMonitor.shutdown();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        Routing routing = new Routing(null);
+
+        routing.readOnly.execute(status -> routing.jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        assertThat(replica.count).hasValue(1);
+        assertThat(primary.count).hasValue(0);
+
+        routing.readWrite.execute(status -> routing.jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        assertThat(primary.count).hasValue(1);
+        assertThat(replica.count).hasValue(1);
+    }
+
+    @Test
+    void lagBeyondLimitFallsBackToPrimary() throws Exception {
+        // 监控直接访问两个库，只统计经过路由数据源的连接
+        lagMonitor = new ReplicaLagMonitor(primary.getTargetDataSource(), replica.getTargetDataSource(),
+                Duration.ofSeconds(1), Duration.ofMillis(50));
+        lagMonitor.start();
+        Routing routing = new Routing(lagMonitor);
+
+        // 副本上没有心跳，视为不可用
+        await(() -> lagMonitor.getLagMillis() == -1 && !lagMonitor.isReplicaUsable());
+        routing.readOnly.execute(status -> routing.jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        assertThat(primary.count).hasValue(1);
+        assertThat(replica.count).hasValue(0);
+
+        // 副本停在 10 秒前，超过 max-lag
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replica.getTargetDataSource());
+        replicaTemplate.update("INSERT INTO PROC_REPLICA_HEARTBEAT (ID, BEAT_TIME) VALUES (1, ?)",
+                System.currentTimeMillis() - 10000);
+        await(() -> lagMonitor.getLagMillis() > 1000);
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        routing.readOnly.execute(status -> routing.jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        assertThat(primary.count).hasValue(2);
+        assertThat(replica.count).hasValue(0);
+
+        // 副本追上主库后恢复使用
+        Long primaryBeat = new JdbcTemplate(primary.getTargetDataSource())
+                .queryForObject("SELECT BEAT_TIME FROM PROC_REPLICA_HEARTBEAT WHERE ID = 1", Long.class);
+        replicaTemplate.update("UPDATE PROC_REPLICA_HEARTBEAT SET BEAT_TIME = ? WHERE ID = 1",
+                primaryBeat + 60000);
+        await(lagMonitor::isReplicaUsable);
+        routing.readOnly.execute(status -> routing.jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        assertThat(primary.count).hasValue(2);
+        assertThat(replica.count).hasValue(1);
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("等待副本状态变化超时").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * 与 DataSourceConfig 相同的组装：路由数据源外包 LazyConnectionDataSourceProxy
+     */
+    private class Routing {
+
+        final JdbcTemplate jdbcTemplate;
+
+        final TransactionTemplate readWrite;
+
+        final TransactionTemplate readOnly;
+
+        Routing(ReplicaLagMonitor lagMonitor) {
+            ReadReplicaRoutingDataSource routingDataSource = new ReadReplicaRoutingDataSource(primary, replica, lagMonitor);
+            routingDataSource.afterPropertiesSet();
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            readWrite = new TransactionTemplate(transactionManager);
+            readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            // LazyConnectionDataSourceProxy 初始化时会取一次连接读取默认的自动提交和隔离级别
+            primary.count.set(0);
+            replica.count.set(0);
+        }
+    }
+
+    /**
+     * 统计获取的连接数
+     */
+    private static class CountingDataSource extends DelegatingDataSource {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            count.incrementAndGet();
+            return super.getConnection();
+        }
+    }
+}
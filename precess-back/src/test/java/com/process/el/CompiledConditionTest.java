@@ -0,0 +1,73 @@
+package com.process.el;
+
+import org.flowable.common.engine.api.delegate.Expression;
+import org.flowable.common.engine.impl.el.ExpressionManager;
+import org.flowable.common.engine.impl.el.VariableContainerWrapper;
+import org.flowable.engine.impl.delegate.invocation.DefaultDelegateInterceptor;
+import org.flowable.engine.impl.el.ProcessExpressionManager;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 同一张表达式 × 变量值的表分别经 CompiledCondition 和引擎原有的 UEL 表达式求值，结果（或异常）必须一致
+ */
+class CompiledConditionTest {
+
+    private static final ExpressionManager UEL = new ProcessExpressionManager(new DefaultDelegateInterceptor(), null);
+
+    private static final Object MISSING = new Object() {
+        @Override
+        public String toString() {
+            return "<缺失>";
+        }
+    };
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            "${v == true}", "${v != false}", "${v eq true}", "${v == 'true'}",
+            "${v > 3}", "${v >= 3}", "${v < 3.5}", "${v le 3}", "${v == 3}", "${v != 3}", "${v == 3.0}",
+            "${v gt -1}", "${v == 'alice'}", "${v != \"bob\"}", "${v < 'm'}", "${v ge 'alice'}",
+            "${v == null}", "${v != null}", "${v ne null}");
+
+    private static final List<Object> VALUES = Arrays.asList(
+            Boolean.TRUE, Boolean.FALSE, "true", "alice", "bob", "3", "", 3, 4, 3L, -2L, (short) 3, (byte) 3,
+            3.0d, 3.5d, 2.5f, 0.1f, new BigDecimal("3"), null, MISSING);
+
+    static Stream<Arguments> cases() {
+        return EXPRESSIONS.stream().flatMap(expression -> VALUES.stream().map(value -> Arguments.of(expression, value)));
+    }
+
+    @ParameterizedTest(name = "{0} v={1}")
+    @MethodSource("cases")
+    void matchesUel(String expression, Object value) {
+        Expression uel = UEL.createExpression(expression);
+        CompiledCondition compiled = CompiledCondition.compile(expression, uel);
+        assertThat(compiled).as("简单比较应被预编译").isNotNull();
+
+        Map<String, Object> variables = new HashMap<>();
+        if (value != MISSING) {
+            variables.put("v", value);
+        }
+        assertThat(evaluate(compiled, variables)).isEqualTo(evaluate(uel, variables));
+    }
+
+    /**
+     * 求值结果，抛出异常时返回异常类型和消息
+     */
+    private static Object evaluate(Expression expression, Map<String, Object> variables) {
+        try {
+            return expression.getValue(new VariableContainerWrapper(variables));
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+}
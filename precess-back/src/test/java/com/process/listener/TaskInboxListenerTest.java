@@ -0,0 +1,75 @@
+package com.process.listener;
+
+import com.process.dto.ProcessStartRequest;
+import com.process.dto.TaskCompleteRequest;
+import com.process.service.ProcessService;
+import com.process.vo.ProcessInstanceVO;
+import com.process.vo.TaskVO;
+import org.flowable.engine.TaskService;
+import org.flowable.task.api.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 转办、完成任务后，原办理人和新办理人的缓存列表在提交后立即更新（版本号校验间隔内也不会读到旧列表）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inbox-listener;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "process.inbox.cache.version-check-interval=60000",
+        "logging.level.com.process=INFO",
+        "logging.level.org.flowable=INFO",
+        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl"
+})
+@DirtiesContext
+class TaskInboxListenerTest {
+
+    @Autowired
+    private ProcessService processService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    void reassignAndCompleteUpdateBothInboxes() {
+        String applicant = "applicant-" + UUID.randomUUID();
+        String delegate = "delegate-" + UUID.randomUUID();
+        ProcessInstanceVO instance = processService.startProcess(startRequest(applicant));
+        Task task = taskService.createTaskQuery().processInstanceId(instance.getId()).singleResult();
+        assertThat(task.getAssignee()).isEqualTo(applicant);
+
+        // 先加载两人的缓存
+        assertThat(processService.listUserTasks(applicant)).extracting(TaskVO::getId).containsExactly(task.getId());
+        assertThat(processService.listUserTasks(delegate)).isEmpty();
+
+        taskService.setAssignee(task.getId(), delegate);
+        assertThat(processService.listUserTasks(applicant)).isEmpty();
+        assertThat(processService.listUserTasks(delegate)).extracting(TaskVO::getId).containsExactly(task.getId());
+
+        TaskCompleteRequest complete = new TaskCompleteRequest();
+        complete.setTaskId(task.getId());
+        complete.setApproved(true);
+        processService.completeTask(complete);
+        assertThat(processService.listUserTasks(delegate)).extracting(TaskVO::getId).doesNotContain(task.getId());
+    }
+
+    private static ProcessStartRequest startRequest(String applicant) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("days", 2);
+        variables.put("managerUserId", "inbox-manager");
+        variables.put("hrUserId", "inbox-hr");
+        ProcessStartRequest request = new ProcessStartRequest();
+        request.setProcessDefinitionKey("leaveProcess");
+        request.setBusinessKey(UUID.randomUUID().toString());
+        request.setStartUserId(applicant);
+        request.setVariables(variables);
+        return request;
+    }
+}
@@ -0,0 +1,123 @@
+package com.process.service;
+
+import com.process.common.Result;
+import com.process.config.IdempotencyProperties;
+import com.process.dto.ProcessStartRequest;
+import com.process.vo.ProcessInstanceVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 同一个 Idempotency-Key 的请求从多个线程同时到达：只执行一次，所有调用方拿到同一个结果，
+ * 同一个键换了请求体返回 422。内存模式和 database-enabled 模式各跑一遍。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "logging.level.com.process=INFO",
+        "logging.level.org.flowable=INFO",
+        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl"
+})
+@DirtiesContext
+class IdempotencyServiceTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        properties.setDatabaseEnabled(false);
+    }
+
+    @ParameterizedTest(name = "database-enabled={0}")
+    @ValueSource(booleans = {false, true})
+    void concurrentRequestsRunOnce(boolean databaseEnabled) throws Exception {
+        properties.setDatabaseEnabled(databaseEnabled);
+        String key = UUID.randomUUID().toString();
+        ProcessStartRequest request = startRequest("biz-1");
+        AtomicInteger executions = new AtomicInteger();
+        Supplier<Result<ProcessInstanceVO>> action = () -> {
+            executions.incrementAndGet();
+            sleep(200);
+            ProcessInstanceVO instance = new ProcessInstanceVO();
+            instance.setId(UUID.randomUUID().toString());
+            instance.setBusinessKey(request.getBusinessKey());
+            return Result.success(instance);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Result<ProcessInstanceVO>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return idempotencyService.execute("start", key, request, ProcessInstanceVO.class, action);
+                }));
+            }
+            start.countDown();
+            List<Result<ProcessInstanceVO>> results = new ArrayList<>();
+            for (Future<Result<ProcessInstanceVO>> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+
+            assertThat(executions).hasValue(1);
+            assertThat(results.get(0).getCode()).isEqualTo(200);
+            assertThat(results).allSatisfy(result -> assertThat(result).isEqualTo(results.get(0)));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Result<ProcessInstanceVO> mismatch = idempotencyService.execute("start", key, startRequest("biz-2"),
+                ProcessInstanceVO.class, action);
+        assertThat(mismatch.getCode()).isEqualTo(422);
+        assertThat(executions).hasValue(1);
+
+        Integer stored = new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM PROC_IDEMPOTENCY WHERE IDEMPOTENCY_KEY = ? AND STATUS = 'DONE'",
+                Integer.class, "start:" + key);
+        assertThat(stored).isEqualTo(databaseEnabled ? 1 : 0);
+    }
+
+    private static ProcessStartRequest startRequest(String businessKey) {
+        ProcessStartRequest request = new ProcessStartRequest();
+        request.setProcessDefinitionKey("leaveProcess");
+        request.setBusinessKey(businessKey);
+        request.setStartUserId("idempotency-user");
+        return request;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
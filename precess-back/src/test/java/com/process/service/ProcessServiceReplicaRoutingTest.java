@@ -0,0 +1,197 @@
+package com.process.service;
+
+import com.process.datasource.ReplicaLagMonitor;
+import com.process.dto.ProcessStartRequest;
+import com.process.dto.TaskInboxQuery;
+import com.process.vo.CursorPageVO;
+import com.process.vo.ProcessInstanceVO;
+import com.process.vo.TaskVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * 读写分离：ProcessService 的只读方法走副本连接池，写操作和副本延迟超限时走主库
+ * <p>
+ * 副本连接池指向与主库相同的 H2 库（副本需要引擎的数据），按连接池统计测试线程获取的连接；
+ * 两个独立库上的延迟检测见 ReadReplicaRoutingDataSourceTest。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "process.datasource.replica.enabled=true",
+        "process.datasource.replica.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "logging.level.com.process=INFO",
+        "logging.level.org.flowable=INFO",
+        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl"
+})
+@DirtiesContext
+class ProcessServiceReplicaRoutingTest {
+
+    private static final CountingDataSource.Counter PRIMARY = new CountingDataSource.Counter();
+
+    private static final CountingDataSource.Counter REPLICA = new CountingDataSource.Counter();
+
+    @Autowired
+    private ProcessService processService;
+
+    @MockBean
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+    }
+
+    @Test
+    void readOnlyMethodsUseReplica() {
+        String userId = "routing-" + UUID.randomUUID();
+        ProcessInstanceVO started = counted(() -> processService.startProcess(startRequest(userId)));
+        assertThat(PRIMARY.get()).isPositive();
+        assertThat(REPLICA.get()).isZero();
+
+        ProcessInstanceVO instance = counted(() -> processService.getProcessInstance(started.getId()));
+        assertThat(instance.getId()).isEqualTo(started.getId());
+        assertThat(REPLICA.get()).isPositive();
+        assertThat(PRIMARY.get()).isZero();
+
+        TaskInboxQuery query = new TaskInboxQuery();
+        query.setUserId(userId);
+        CursorPageVO<TaskVO> page = counted(() -> processService.pageUserTasks(query));
+        assertThat(page.getRecords()).extracting(TaskVO::getProcessInstanceId).containsExactly(started.getId());
+        assertThat(REPLICA.get()).isPositive();
+        assertThat(PRIMARY.get()).isZero();
+
+        counted(() -> processService.listProcessDefinitions());
+        assertThat(PRIMARY.get()).isZero();
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        String userId = "routing-" + UUID.randomUUID();
+        ProcessInstanceVO started = processService.startProcess(startRequest(userId));
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(false);
+
+        ProcessInstanceVO instance = counted(() -> processService.getProcessInstance(started.getId()));
+        assertThat(instance.getId()).isEqualTo(started.getId());
+        assertThat(PRIMARY.get()).isPositive();
+        assertThat(REPLICA.get()).isZero();
+    }
+
+    /**
+     * 只统计当前线程在 action 中获取的连接，不含异步执行器等后台线程
+     */
+    private static <T> T counted(Supplier<T> action) {
+        PRIMARY.start();
+        REPLICA.start();
+        try {
+            return action.get();
+        } finally {
+            PRIMARY.stop();
+            REPLICA.stop();
+        }
+    }
+
+    private static ProcessStartRequest startRequest(String userId) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("days", 2);
+        variables.put("managerUserId", "routing-manager");
+        variables.put("hrUserId", "routing-hr");
+        ProcessStartRequest request = new ProcessStartRequest();
+        request.setProcessDefinitionKey("leaveProcess");
+        request.setBusinessKey(UUID.randomUUID().toString());
+        request.setStartUserId(userId);
+        request.setVariables(variables);
+        return request;
+    }
+
+    @TestConfiguration
+    static class CountingConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSources() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if ("primaryDataSource".equals(beanName)) {
+                        return new CountingDataSource((DataSource) bean, PRIMARY);
+                    }
+                    if ("replicaDataSource".equals(beanName)) {
+                        return new CountingDataSource((DataSource) bean, REPLICA);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * 按连接池统计指定线程获取的连接数
+     */
+    static class CountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+        private final Counter counter;
+
+        CountingDataSource(DataSource target, Counter counter) {
+            super(target);
+            this.counter = counter;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            counter.record();
+            return super.getConnection();
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (getTargetDataSource() instanceof AutoCloseable) {
+                ((AutoCloseable) getTargetDataSource()).close();
+            }
+        }
+
+        static class Counter {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            private volatile Thread thread;
+
+            void start() {
+                count.set(0);
+                thread = Thread.currentThread();
+            }
+
+            void stop() {
+                thread = null;
+            }
+
+            void record() {
+                if (Thread.currentThread() == thread) {
+                    count.incrementAndGet();
+                }
+            }
+
+            int get() {
+                return count.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.process.service;
+
+import com.process.dto.ProcessStartRequest;
+import com.process.vo.ProcessInstanceVO;
+import com.process.vo.ProcessStartStatusVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * 异步启动队列按业务 Key 保存状态：批次中重复的 Key、仍在排队或启动中的 Key 整批拒绝，完成后可重新提交
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:start-queue;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "logging.level.com.process=INFO",
+        "logging.level.org.flowable=INFO",
+        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl"
+})
+@DirtiesContext
+class ProcessStartQueueServiceTest {
+
+    @Autowired
+    private ProcessStartQueueService processStartQueueService;
+
+    @MockBean
+    private ProcessService processService;
+
+    @Test
+    void duplicateKeysInBatchAreRejected() {
+        String key = UUID.randomUUID().toString();
+        String other = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> processStartQueueService.submit(Arrays.asList(request(other), request(key), request(key))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(key);
+        assertThat(processStartQueueService.getStatus(other)).isNull();
+    }
+
+    @Test
+    void pendingKeyIsRejectedUntilFinished() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(processService.startProcesses(anyList())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            List<ProcessStartRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> {
+                ProcessInstanceVO instance = new ProcessInstanceVO();
+                instance.setId(UUID.randomUUID().toString());
+                return instance;
+            }).collect(Collectors.toList());
+        });
+        String key = UUID.randomUUID().toString();
+        String fresh = UUID.randomUUID().toString();
+
+        assertThat(processStartQueueService.submit(Collections.singletonList(request(key)))).isTrue();
+        assertThatThrownBy(() -> processStartQueueService.submit(Arrays.asList(request(fresh), request(key))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(key);
+        assertThat(processStartQueueService.getStatus(fresh)).isNull();
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ProcessStartStatusVO.PENDING.equals(processStartQueueService.getStatus(key).getStatus())) {
+            assertThat(System.currentTimeMillis()).as("等待启动完成超时").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        assertThat(processStartQueueService.getStatus(key).getStatus()).isEqualTo(ProcessStartStatusVO.STARTED);
+        assertThat(processStartQueueService.submit(Collections.singletonList(request(key)))).isTrue();
+    }
+
+    private static ProcessStartRequest request(String businessKey) {
+        ProcessStartRequest request = new ProcessStartRequest();
+        request.setProcessDefinitionKey("leaveProcess");
+        request.setBusinessKey(businessKey);
+        request.setStartUserId("queue-user");
+        return request;
+    }
+}
@@ -0,0 +1,228 @@
+package com.process.shard;
+
+import com.process.archive.ArchivedInstance;
+import com.process.dto.ApprovalResultMessage;
+import com.process.dto.ProcessStartRequest;
+import com.process.dto.TaskCompleteRequest;
+import com.process.dto.TaskInboxQuery;
+import com.process.mapper.ArchiveMapper;
+import com.process.mapper.OutboxMapper;
+import com.process.outbox.OutboxMessage;
+import com.process.outbox.OutboxService;
+import com.process.outbox.handler.ApprovalAuditHandler;
+import com.process.service.HistoryExportService;
+import com.process.service.ProcessDiagramService;
+import com.process.service.ProcessService;
+import com.process.vo.BatchItemResultVO;
+import com.process.vo.BatchResultVO;
+import com.process.vo.ProcessDiagramStateVO;
+import com.process.vo.ProcessInstanceVO;
+import com.process.vo.TaskVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 默认库和一个额外分片各用一个 H2 库：分片启动时部署 processes/，租户的流程实例只写入所在分片，
+ * 分片引擎命令中写入的发件箱消息随该分片的事务提交并被投递，带租户的查询读取所在分片
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard-default;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "process.sharding.enabled=true",
+        "process.sharding.shards.shard1.driver-class-name=org.h2.Driver",
+        "process.sharding.shards.shard1.url=jdbc:h2:mem:shard-shard1;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "process.sharding.shards.shard1.username=sa",
+        "process.sharding.tenants.tenant-a=shard1",
+        "logging.level.com.process=INFO",
+        "logging.level.org.flowable=INFO",
+        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl"
+})
+@DirtiesContext
+class EngineShardRegistryTest {
+
+    @Autowired
+    private EngineShardRegistry engineShards;
+
+    @Autowired
+    private ProcessService processService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ProcessDiagramService processDiagramService;
+
+    @Autowired
+    private HistoryExportService historyExportService;
+
+    @Test
+    void shardDeploysProcessesOnStartup() {
+        EngineShard shard = engineShards.forTenant("tenant-a");
+        assertThat(shard.getName()).isEqualTo("shard1");
+        assertThat(shard.getRepositoryService().createProcessDefinitionQuery()
+                .processDefinitionKey("leaveProcess").count()).isEqualTo(1);
+        assertThat(engineShards.getDefault().getRepositoryService().createProcessDefinitionQuery()
+                .processDefinitionKey("leaveProcess").count()).isEqualTo(1);
+    }
+
+    @Test
+    void tenantInstancesStayOnTheirShard() {
+        EngineShard shard = engineShards.forTenant("tenant-a");
+        EngineShard defaultShard = engineShards.getDefault();
+
+        ProcessInstanceVO tenantInstance = processService.startProcess(startRequest("tenant-a"));
+        assertThat(tenantInstance.getTenantId()).isEqualTo("tenant-a");
+        assertThat(shard.getRuntimeService().createProcessInstanceQuery()
+                .processInstanceId(tenantInstance.getId()).count()).isEqualTo(1);
+        assertThat(defaultShard.getRuntimeService().createProcessInstanceQuery()
+                .processInstanceId(tenantInstance.getId()).count()).isZero();
+
+        ProcessInstanceVO defaultInstance = processService.startProcess(startRequest(null));
+        assertThat(defaultShard.getRuntimeService().createProcessInstanceQuery()
+                .processInstanceId(defaultInstance.getId()).count()).isEqualTo(1);
+        assertThat(shard.getRuntimeService().createProcessInstanceQuery()
+                .processInstanceId(defaultInstance.getId()).count()).isZero();
+    }
+
+    @Test
+    void outboxJoinsShardTransaction() throws InterruptedException {
+        EngineShard shard = engineShards.forTenant("tenant-a");
+        OutboxMapper shardOutbox = shard.getMapper(OutboxMapper.class);
+        OutboxMapper defaultOutbox = engineShards.getDefault().getMapper(OutboxMapper.class);
+        String committedKey = UUID.randomUUID().toString();
+        String rolledBackKey = UUID.randomUUID().toString();
+
+        shard.getManagementService().executeCommand(commandContext ->
+                outboxService.enqueue(ApprovalAuditHandler.TOPIC, committedKey, new ApprovalResultMessage()));
+        assertThat(shardOutbox.countByKey(committedKey)).isEqualTo(1);
+        assertThat(defaultOutbox.countByKey(committedKey)).isZero();
+
+        assertThatThrownBy(() -> shard.getManagementService().executeCommand(commandContext -> {
+            outboxService.enqueue(ApprovalAuditHandler.TOPIC, rolledBackKey, new ApprovalResultMessage());
+            throw new IllegalStateException("回滚");
+        })).hasMessage("回滚");
+        assertThat(shardOutbox.countByKey(rolledBackKey)).isZero();
+
+        // 提交后唤醒投递器，分片上的消息同样会被投递
+        long deadline = System.currentTimeMillis() + 5000;
+        while (shardOutbox.countByStatus(OutboxMessage.DONE) == 0) {
+            assertThat(System.currentTimeMillis()).as("等待分片发件箱投递超时").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        assertThat(shardOutbox.countByStatus(OutboxMessage.PENDING)).isZero();
+    }
+
+    @Test
+    void tenantQueriesReadTheirShard() {
+        ProcessInstanceVO instance = processService.startProcess(startRequest("tenant-a"));
+
+        TaskInboxQuery query = new TaskInboxQuery();
+        query.setUserId("shard-user");
+        query.setTenantId("tenant-a");
+        assertThat(processService.pageUserTasks(query).getRecords())
+                .extracting(TaskVO::getProcessInstanceId).contains(instance.getId());
+        query.setTenantId(null);
+        assertThat(processService.pageUserTasks(query).getRecords())
+                .extracting(TaskVO::getProcessInstanceId).doesNotContain(instance.getId());
+
+        ProcessDiagramStateVO state = processDiagramService.getInstanceState(instance.getId(), "tenant-a");
+        assertThat(state.getActiveActivities()).isNotEmpty();
+        assertThat(state.getDiagramUrl()).endsWith("?tenantId=tenant-a");
+        assertThat(state.getWidth()).isPositive();
+        assertThat(processDiagramService.getInstanceState(instance.getId())).isNull();
+    }
+
+    @Test
+    void archiveFallbackReadsTenantShard() {
+        ArchivedInstance archived = new ArchivedInstance();
+        archived.setId(UUID.randomUUID().toString());
+        archived.setProcessDefinitionKey("leaveProcess");
+        archived.setStartTime(new Date());
+        archived.setEndTime(new Date());
+        archived.setArchiveTime(new Date());
+        EngineShard shard = engineShards.forTenant("tenant-a");
+        shard.execute(() -> shard.getMapper(ArchiveMapper.class).insertBatch(Collections.singletonList(archived)));
+
+        ProcessInstanceVO instance = processService.getProcessInstance(archived.getId(), "tenant-a");
+        assertThat(instance.getId()).isEqualTo(archived.getId());
+        assertThat(instance.getEndTime()).isNotNull();
+        assertThat(processService.getProcessInstance(archived.getId())).isNull();
+    }
+
+    @Test
+    void historyExportReadsTenantShardIncludingArchive() {
+        ArchivedInstance archived = new ArchivedInstance();
+        archived.setId(UUID.randomUUID().toString());
+        archived.setProcessDefinitionKey("leaveProcess");
+        archived.setStartTime(new Date(1000));
+        archived.setEndTime(new Date(2000));
+        archived.setArchiveTime(new Date());
+        EngineShard shard = engineShards.forTenant("tenant-a");
+        shard.execute(() -> shard.getMapper(ArchiveMapper.class).insertBatch(Collections.singletonList(archived)));
+
+        ByteArrayOutputStream tenantExport = new ByteArrayOutputStream();
+        historyExportService.export("tenant-a", null, null, null, null, tenantExport);
+        assertThat(tenantExport.toString()).contains(archived.getId());
+
+        ByteArrayOutputStream afterWatermark = new ByteArrayOutputStream();
+        historyExportService.export("tenant-a", null, null, archived.getEndTime(), archived.getId(), afterWatermark);
+        assertThat(afterWatermark.toString()).doesNotContain(archived.getId());
+
+        ByteArrayOutputStream defaultExport = new ByteArrayOutputStream();
+        historyExportService.export(null, null, null, null, null, defaultExport);
+        assertThat(defaultExport.toString()).doesNotContain(archived.getId());
+    }
+
+    @Test
+    void batchResultsKeepRequestOrderAcrossShards() {
+        ProcessInstanceVO first = processService.startProcess(startRequest(null));
+        ProcessInstanceVO second = processService.startProcess(startRequest("tenant-a"));
+        ProcessInstanceVO third = processService.startProcess(startRequest(null));
+        List<TaskCompleteRequest> requests = Arrays.asList(
+                completeRequest(engineShards.getDefault(), first, null),
+                completeRequest(engineShards.forTenant("tenant-a"), second, "tenant-a"),
+                completeRequest(engineShards.getDefault(), third, null));
+
+        BatchResultVO result = processService.completeTasks(requests, 10);
+        assertThat(result.getSuccessCount()).isEqualTo(3);
+        assertThat(result.getItems()).extracting(BatchItemResultVO::getId)
+                .containsExactlyElementsOf(requests.stream().map(TaskCompleteRequest::getTaskId).collect(Collectors.toList()));
+    }
+
+    private static TaskCompleteRequest completeRequest(EngineShard shard, ProcessInstanceVO instance, String tenantId) {
+        TaskCompleteRequest request = new TaskCompleteRequest();
+        request.setTaskId(shard.getTaskService().createTaskQuery()
+                .processInstanceId(instance.getId()).singleResult().getId());
+        request.setTenantId(tenantId);
+        request.setApproved(true);
+        return request;
+    }
+
+    private static ProcessStartRequest startRequest(String tenantId) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("days", 2);
+        variables.put("managerUserId", "shard-manager");
+        variables.put("hrUserId", "shard-hr");
+        ProcessStartRequest request = new ProcessStartRequest();
+        request.setProcessDefinitionKey("leaveProcess");
+        request.setBusinessKey(UUID.randomUUID().toString());
+        request.setStartUserId("shard-user");
+        request.setTenantId(tenantId);
+        request.setVariables(variables);
+        return request;
+    }
+}